@@ -0,0 +1,174 @@
+package com.budgettracker.database;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.budgettracker.utils.Constants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+// Replays every migration from the version 1 schema on the device's own SQLite,
+// which re-checks triggers on ALTER TABLE RENAME (3.26+). Opening the result with
+// Room then validates each table and index against the current entities.
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+
+    // Version 1 as Room created it
+    private static final String[] V1_SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS `users` (" +
+            "`userId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL, " +
+            "`email` TEXT NOT NULL, `password` TEXT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS `categories` (" +
+            "`categoryId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `categoryName` TEXT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS `expenses` (" +
+            "`expenseId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+            "`userId` INTEGER NOT NULL, `categoryId` INTEGER NOT NULL, " +
+            "`date` INTEGER NOT NULL, `time` TEXT NOT NULL, `description` TEXT NOT NULL, " +
+            "`amount` REAL NOT NULL, `photoUri` TEXT, " +
+            "FOREIGN KEY(`userId`) REFERENCES `users`(`userId`) " +
+            "ON UPDATE NO ACTION ON DELETE NO ACTION , " +
+            "FOREIGN KEY(`categoryId`) REFERENCES `categories`(`categoryId`) " +
+            "ON UPDATE NO ACTION ON DELETE NO ACTION )",
+        "CREATE TABLE IF NOT EXISTS `budgets` (" +
+            "`budgetId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+            "`userId` INTEGER NOT NULL, `monthYear` TEXT NOT NULL, " +
+            "`minSpending` REAL NOT NULL, `maxSpending` REAL NOT NULL, " +
+            "FOREIGN KEY(`userId`) REFERENCES `users`(`userId`) " +
+            "ON UPDATE NO ACTION ON DELETE NO ACTION )"
+    };
+
+    // Duplicate emails, category names and monthly budgets, shared receipts, and
+    // REAL amounts: every case a migration has to convert or merge
+    private static final String[] V1_DATA = {
+        "INSERT INTO users (name, email, password) VALUES " +
+            "('A', 'a@example.com', 'pw'), ('B', 'a@example.com', 'pw2'), ('C', 'c@example.com', 'pw3')",
+        "INSERT INTO categories (categoryName) VALUES ('Food'), ('Travel'), ('Food')",
+        "INSERT INTO expenses (userId, categoryId, date, time, description, amount, photoUri) VALUES " +
+            "(1, 1, 1700000000000, '10:00', 'Lunch', 12.5, '/receipts/a.jpg'), " +
+            "(1, 3, 1700000000000, '11:00', 'Dinner', 20.1, '/receipts/a.jpg'), " +
+            "(2, 2, 1710000000000, '09:00', 'Train', 3.3, NULL), " +
+            "(3, 1, 1700000000000, '08:00', 'Coffee', 1.1, '/receipts/b.jpg')",
+        "INSERT INTO budgets (userId, monthYear, minSpending, maxSpending) VALUES " +
+            "(1, '2023-11', 10, 100), (1, '2023-11', 20, 200), (2, '2024-03', 5, 50)"
+    };
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void migrationsCoverEveryVersion() {
+        int version = 1;
+        for (Migration migration : Migrations.ALL) {
+            assertEquals(version, migration.startVersion);
+            version = migration.endVersion;
+        }
+        assertEquals(Constants.DATABASE_VERSION, version);
+    }
+
+    @Test
+    public void migrateFromVersion1() {
+        createVersion1();
+
+        AppDatabase db = Room.databaseBuilder(context, AppDatabase.class, TEST_DB)
+            .addMigrations(Migrations.ALL)
+            .allowMainThreadQueries()
+            .build();
+        try {
+            SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+
+            // The current triggers run on the migrated tables
+            sql.execSQL("INSERT INTO expenses (userId, categoryId, date, time, description, amount, photoUri) " +
+                "VALUES (1, 1, 1700000000000, '12:00', 'Snack', 250, '/receipts/b.jpg')");
+            sql.execSQL("DELETE FROM expenses WHERE description = 'Dinner'");
+
+            assertEquals(
+                rows(sql, "SELECT userId, " + MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE +
+                    ", categoryId, SUM(amount), COUNT(*) FROM expenses GROUP BY 1, 2, 3 ORDER BY 1, 2, 3"),
+                rows(sql, "SELECT userId, epochMonth, categoryId, total, expenseCount " +
+                    "FROM monthly_category_totals ORDER BY 1, 2, 3"));
+            assertEquals("1500", rows(sql, "SELECT total FROM monthly_category_totals " +
+                "WHERE userId = 1 AND categoryId = 1"));
+            assertEquals("/receipts/a.jpg|1;/receipts/b.jpg|2",
+                rows(sql, "SELECT path, refCount FROM receipt_refs ORDER BY path"));
+            assertEquals("1|646|2000|20000;2|650|500|5000",
+                rows(sql, "SELECT userId, epochMonth, minSpending, maxSpending FROM budgets ORDER BY userId"));
+            assertEquals("1|a@example.com;2|a@example.com#2;3|c@example.com",
+                rows(sql, "SELECT userId, email FROM users ORDER BY userId"));
+            assertEquals("1|Food;2|Travel",
+                rows(sql, "SELECT categoryId, categoryName FROM categories ORDER BY categoryId"));
+            assertEquals("Snack", rows(sql, "SELECT e.description FROM expenses_fts " +
+                "JOIN expenses e ON e.expenseId = expenses_fts.docid WHERE expenses_fts MATCH 'snack'"));
+        } finally {
+            db.close();
+        }
+    }
+
+    private void createVersion1() {
+        SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(
+            SupportSQLiteOpenHelper.Configuration.builder(context)
+                .name(TEST_DB)
+                .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        for (String sql : V1_SCHEMA) {
+                            db.execSQL(sql);
+                        }
+                    }
+
+                    @Override
+                    public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                        // Only ever opened at version 1
+                    }
+                })
+                .build());
+        SupportSQLiteDatabase db = helper.getWritableDatabase();
+        for (String sql : V1_DATA) {
+            db.execSQL(sql);
+        }
+        helper.close();
+    }
+
+    // Rows joined with ';', columns with '|'
+    private static String rows(SupportSQLiteDatabase db, String query) {
+        StringBuilder result = new StringBuilder();
+        try (Cursor cursor = db.query(query)) {
+            while (cursor.moveToNext()) {
+                if (result.length() > 0) {
+                    result.append(';');
+                }
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    if (i > 0) {
+                        result.append('|');
+                    }
+                    result.append(cursor.getString(i));
+                }
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,152 @@
+package com.budgettracker.utils;
+
+import android.content.Context;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+// Runs a camera-sized JPEG through processImage and checks that the full-resolution
+// bitmap is never allocated. At 8000x6000 that would be 192 MB of ARGB_8888.
+@RunWith(AndroidJUnit4.class)
+public class ImageUtilsTest {
+    private static final int SOURCE_WIDTH = 8000;
+    private static final int SOURCE_HEIGHT = 6000;
+    // EXIF orientation "rotate 90 clockwise", so the stored image is portrait
+    private static final int ORIENTATION_ROTATE_90 = 6;
+
+    private Context context;
+    private File source;
+    private String stored;
+
+    @Before
+    public void setUp() throws IOException {
+        context = ApplicationProvider.getApplicationContext();
+        source = new File(context.getCacheDir(), "image-utils-test.jpg");
+        writeGrayJpeg(source, SOURCE_WIDTH, SOURCE_HEIGHT, ORIENTATION_ROTATE_90);
+    }
+
+    @After
+    public void tearDown() {
+        source.delete();
+        if (stored != null) {
+            new File(stored).delete();
+        }
+    }
+
+    @Test
+    public void decodeScaledNeverAllocatesFullResolution() throws IOException {
+        ImageUtils.Decoded decoded = ImageUtils.decodeScaled(context, Uri.fromFile(source));
+        assertNotNull(decoded);
+        try {
+            assertEquals(SOURCE_WIDTH, decoded.sourceWidth);
+            assertEquals(SOURCE_HEIGHT, decoded.sourceHeight);
+            assertTrue(decoded.bitmap.getHeight() > decoded.bitmap.getWidth());
+
+            long target = (long) Constants.MAX_IMAGE_DIMENSION * Constants.MAX_IMAGE_DIMENSION * 4;
+            long fullResolution = (long) SOURCE_WIDTH * SOURCE_HEIGHT * 4;
+            // Decoded plus its rotated copy
+            assertTrue("peak " + decoded.peakBytes, decoded.peakBytes <= 2 * target);
+            assertTrue(decoded.peakBytes < fullResolution / 10);
+        } finally {
+            decoded.bitmap.recycle();
+        }
+    }
+
+    @Test
+    public void processImageStoresUprightTargetSize() {
+        stored = ImageUtils.processImage(context, Uri.fromFile(source));
+        assertNotNull(stored);
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(stored, options);
+        int longEdge = Math.max(options.outWidth, options.outHeight);
+        assertTrue("long edge " + longEdge, Math.abs(longEdge - Constants.MAX_IMAGE_DIMENSION) <= 2);
+        assertTrue(options.outHeight > options.outWidth);
+    }
+
+    // A baseline grayscale JPEG of uniform mid-gray, written without allocating a
+    // bitmap. One-code Huffman tables make every 8x8 block the bits "00" (DC
+    // difference 0, then end of block), so 8000x6000 is under 200 KB.
+    private static void writeGrayJpeg(File file, int width, int height, int orientation)
+            throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            out.write(new byte[] {(byte) 0xFF, (byte) 0xD8});
+
+            // APP1: big-endian TIFF with a single Orientation (0x0112) SHORT entry
+            byte[] exif = {
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+            };
+            writeSegment(out, 0xE1, exif);
+
+            // DQT: table 0, every coefficient 1
+            byte[] dqt = new byte[65];
+            for (int i = 1; i < dqt.length; i++) {
+                dqt[i] = 1;
+            }
+            writeSegment(out, 0xDB, dqt);
+
+            // SOF0: 8-bit, one component with id 1, no subsampling, table 0
+            writeSegment(out, 0xC0, new byte[] {
+                8, (byte) (height >> 8), (byte) height, (byte) (width >> 8), (byte) width,
+                1, 1, 0x11, 0
+            });
+
+            // DHT: DC and AC table 0, each a single 1-bit code for symbol 0
+            byte[] dht = new byte[17 + 1];
+            dht[1] = 1;
+            writeSegment(out, 0xC4, withClass(0x00, dht));
+            writeSegment(out, 0xC4, withClass(0x10, dht));
+
+            // SOS: component 1 with tables 0/0, full spectral range
+            writeSegment(out, 0xDA, new byte[] {1, 1, 0, 0, 63, 0});
+
+            long blocks = (long) ((width + 7) / 8) * ((height + 7) / 8);
+            byte[] zeros = new byte[8192];
+            long remaining = (blocks * 2 + 7) / 8;
+            while (remaining > 0) {
+                int chunk = (int) Math.min(zeros.length, remaining);
+                out.write(zeros, 0, chunk);
+                remaining -= chunk;
+            }
+            out.write(new byte[] {(byte) 0xFF, (byte) 0xD9});
+        }
+    }
+
+    private static byte[] withClass(int tableClass, byte[] table) {
+        byte[] copy = table.clone();
+        copy[0] = (byte) tableClass;
+        return copy;
+    }
+
+    private static void writeSegment(OutputStream out, int marker, byte[] payload)
+            throws IOException {
+        int length = payload.length + 2;
+        out.write(0xFF);
+        out.write(marker);
+        out.write(length >> 8);
+        out.write(length);
+        out.write(payload);
+    }
+}
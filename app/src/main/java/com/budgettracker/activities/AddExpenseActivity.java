@@ -21,12 +21,16 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.FileProvider;
 
 import com.budgettracker.R;
-import com.budgettracker.database.AppDatabase;
 import com.budgettracker.database.Category;
+import com.budgettracker.database.CategoryRepository;
+import com.budgettracker.database.ExpenseRepository;
 import com.budgettracker.database.Expense;
+import com.budgettracker.utils.AppExecutors;
 import com.budgettracker.utils.Constants;
 import com.budgettracker.utils.DateUtils;
 import com.budgettracker.utils.ImageUtils;
+import com.budgettracker.utils.Money;
+import com.budgettracker.utils.ReceiptThumbnailCache;
 import com.budgettracker.utils.SessionManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
@@ -39,8 +43,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class AddExpenseActivity extends AppCompatActivity {
     
@@ -50,9 +52,9 @@ public class AddExpenseActivity extends AppCompatActivity {
     private MaterialButton btnCamera, btnGallery, btnSave;
     private ImageView ivReceipt;
     
-    private AppDatabase db;
+    private ExpenseRepository expenseRepository;
     private SessionManager sessionManager;
-    private ExecutorService executorService;
+    private AppExecutors executors;
     private Uri currentPhotoUri;
     private String selectedPhotoPath;
     private Map<String, Integer> categoryMap = new HashMap<>();
@@ -83,9 +85,9 @@ public class AddExpenseActivity extends AppCompatActivity {
         setContentView(R.layout.activity_add_expense);
 
         // Initialize database and utilities
-        db = AppDatabase.getInstance(this);
-        sessionManager = new SessionManager(this);
-        executorService = Executors.newSingleThreadExecutor();
+        expenseRepository = ExpenseRepository.getInstance(this);
+        sessionManager = SessionManager.getInstance(this);
+        executors = AppExecutors.getInstance();
 
         // Setup toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -134,24 +136,23 @@ public class AddExpenseActivity extends AppCompatActivity {
         etTime.setText(DateUtils.getCurrentTime());
     }
 
+    // Bound from the in-memory category snapshot, so once it is loaded opening this
+    // screen reads nothing from the database
     private void loadCategories() {
-        executorService.execute(() -> {
-            List<Category> categories = db.categoryDao().getAllCategories();
+        CategoryRepository.getInstance(this).observe().observe(this, snapshot -> {
             List<String> categoryNames = new ArrayList<>();
-            
-            for (Category category : categories) {
+            categoryMap.clear();
+            for (Category category : snapshot.getCategories()) {
                 categoryNames.add(category.getCategoryName());
                 categoryMap.put(category.getCategoryName(), category.getCategoryId());
             }
 
-            runOnUiThread(() -> {
-                ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                    this,
-                    android.R.layout.simple_dropdown_item_1line,
-                    categoryNames
-                );
-                spinnerCategory.setAdapter(adapter);
-            });
+            ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_dropdown_item_1line,
+                categoryNames
+            );
+            spinnerCategory.setAdapter(adapter);
         });
     }
 
@@ -222,13 +223,13 @@ public class AddExpenseActivity extends AppCompatActivity {
     }
 
     private void handleSelectedPhoto(Uri photoUri) {
-        executorService.execute(() -> {
+        executors.io().execute(() -> {
             String processedPath = ImageUtils.processImage(this, photoUri);
             if (processedPath != null) {
                 selectedPhotoPath = processedPath;
-                runOnUiThread(() -> {
+                executors.runOnMain(this, () -> {
                     ivReceipt.setVisibility(View.VISIBLE);
-                    ivReceipt.setImageURI(Uri.fromFile(new File(processedPath)));
+                    ReceiptThumbnailCache.getInstance(this).load(processedPath, ivReceipt);
                 });
             }
         });
@@ -261,9 +262,9 @@ public class AddExpenseActivity extends AppCompatActivity {
             return;
         }
 
-        double amount;
+        Money amount;
         try {
-            amount = Double.parseDouble(amountStr);
+            amount = Money.parse(amountStr);
         } catch (NumberFormatException e) {
             tilAmount.setError(getString(R.string.error_invalid_amount));
             return;
@@ -287,12 +288,10 @@ public class AddExpenseActivity extends AppCompatActivity {
             selectedPhotoPath
         );
 
-        // Save expense in background
-        executorService.execute(() -> {
-            long expenseId = db.expenseDao().insertExpense(expense);
-            
-            runOnUiThread(() -> {
-                if (expenseId > 0) {
+        // Save expense in background; the write completes even if the screen closes
+        expenseRepository.insert(expense).whenComplete((expenseId, error) -> {
+            executors.runOnMain(this, () -> {
+                if (error == null && expenseId > 0) {
                     Toast.makeText(this, 
                         R.string.success_expense_added, 
                         Toast.LENGTH_SHORT).show();
@@ -314,10 +313,4 @@ public class AddExpenseActivity extends AppCompatActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
-    }
 }
@@ -15,6 +15,10 @@ import com.budgettracker.R;
 import com.budgettracker.adapters.CategoryAdapter;
 import com.budgettracker.database.AppDatabase;
 import com.budgettracker.database.Category;
+import com.budgettracker.database.CategoryDao;
+import com.budgettracker.database.CategoryRepository;
+import com.budgettracker.utils.AppExecutors;
+import com.budgettracker.utils.SessionManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
@@ -22,8 +26,6 @@ import com.google.android.material.textfield.TextInputLayout;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class CategoryActivity extends AppCompatActivity implements CategoryAdapter.CategoryClickListener {
     
@@ -34,8 +36,10 @@ public class CategoryActivity extends AppCompatActivity implements CategoryAdapt
     private View layoutEmpty;
     
     private AppDatabase db;
+    private CategoryRepository categoryRepository;
+    private SessionManager sessionManager;
     private CategoryAdapter adapter;
-    private ExecutorService executorService;
+    private AppExecutors executors;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -44,7 +48,9 @@ public class CategoryActivity extends AppCompatActivity implements CategoryAdapt
 
         // Initialize database and executor
         db = AppDatabase.getInstance(this);
-        executorService = Executors.newSingleThreadExecutor();
+        categoryRepository = CategoryRepository.getInstance(this);
+        sessionManager = SessionManager.getInstance(this);
+        executors = AppExecutors.getInstance();
 
         // Setup toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -97,34 +103,20 @@ public class CategoryActivity extends AppCompatActivity implements CategoryAdapt
             return;
         }
 
-        // Add category in background
-        executorService.execute(() -> {
-            // Check if category already exists
-            boolean exists = db.categoryDao().isCategoryExists(categoryName);
-            
-            if (exists) {
-                runOnUiThread(() -> {
+        // Add category in background; the unique name index makes the insert the
+        // existence check, so two quick taps can't both add it
+        categoryRepository.insert(new Category(categoryName)).whenComplete((categoryId, error) -> {
+            executors.runOnMain(this, () -> {
+                if (error == null && categoryId < 0) {
                     tilCategoryName.setError(getString(R.string.error_category_exists));
-                });
-                return;
-            }
-
-            // Create new category
-            Category category = new Category(categoryName);
-            long categoryId = db.categoryDao().insertCategory(category);
-
-            runOnUiThread(() -> {
-                if (categoryId > 0) {
+                } else if (error == null) {
                     // Clear input
                     etCategoryName.setText("");
                     
-                    // Show success message
+                    // Show success message; the list updates from the repository
                     Toast.makeText(this, 
                         R.string.success_category_added, 
                         Toast.LENGTH_SHORT).show();
-
-                    // Reload categories
-                    loadCategories();
                 } else {
                     Toast.makeText(this,
                         R.string.error_adding_category,
@@ -134,39 +126,40 @@ public class CategoryActivity extends AppCompatActivity implements CategoryAdapt
         });
     }
 
+    // The list comes from the in-memory snapshot and rebinds on every change; only
+    // the user's expense count per category is read from the database
     private void loadCategories() {
-        executorService.execute(() -> {
-            // Get all categories
-            List<Category> categories = db.categoryDao().getAllCategories();
-            
-            // Get expense count for each category
-            Map<Integer, Integer> expenseCountMap = new HashMap<>();
-            for (Category category : categories) {
-                int count = db.expenseDao()
-                    .getExpensesByCategory(0, category.getCategoryId()).size();
-                expenseCountMap.put(category.getCategoryId(), count);
-            }
+        categoryRepository.observe().observe(this, snapshot -> {
+            List<Category> categories = snapshot.getCategories();
+            adapter.setCategories(categories);
 
-            runOnUiThread(() -> {
-                adapter.submitList(categories);
-                adapter.setExpenseCount(expenseCountMap);
-                
-                // Toggle empty state visibility
-                layoutEmpty.setVisibility(categories.isEmpty() ? View.VISIBLE : View.GONE);
-                rvCategories.setVisibility(categories.isEmpty() ? View.GONE : View.VISIBLE);
-            });
+            // Toggle empty state visibility
+            boolean empty = categories.isEmpty();
+            layoutEmpty.setVisibility(empty ? View.VISIBLE : View.GONE);
+            rvCategories.setVisibility(empty ? View.GONE : View.VISIBLE);
+
+            loadExpenseCounts();
+        });
+    }
+
+    private void loadExpenseCounts() {
+        executors.diskRead(this, () -> {
+            Map<Integer, Integer> expenseCounts = new HashMap<>();
+            for (CategoryDao.CategoryExpenseCount count
+                    : db.categoryDao().getExpenseCountsByCategory(sessionManager.getUserId())) {
+                expenseCounts.put(count.categoryId, count.expenseCount);
+            }
+            executors.runOnMain(this, () -> adapter.setExpenseCount(expenseCounts));
         });
     }
 
     @Override
     public void onDeleteCategory(Category category) {
-        executorService.execute(() -> {
-            db.categoryDao().deleteCategory(category);
-            runOnUiThread(() -> {
+        categoryRepository.delete(category).thenRun(() -> {
+            executors.runOnMain(this, () -> {
                 Toast.makeText(this, 
                     getString(R.string.category_deleted, category.getCategoryName()),
                     Toast.LENGTH_SHORT).show();
-                loadCategories();
             });
         });
     }
@@ -185,10 +178,4 @@ public class CategoryActivity extends AppCompatActivity implements CategoryAdapt
         }
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
-    }
 }
@@ -0,0 +1,161 @@
+package com.budgettracker.activities;
+
+import android.os.Bundle;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.LiveData;
+import androidx.paging.LoadState;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.budgettracker.R;
+import com.budgettracker.adapters.ExpenseAdapter;
+import com.budgettracker.database.AppDatabase;
+import com.budgettracker.database.Category;
+import com.budgettracker.database.CategoryRepository;
+import com.budgettracker.database.Expense;
+import com.budgettracker.database.ExpensePagingSource;
+import com.budgettracker.database.ExpenseRepository;
+import com.budgettracker.utils.AppExecutors;
+import com.budgettracker.utils.Constants;
+import com.budgettracker.utils.MoneyFormatter;
+import com.budgettracker.utils.SessionManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import kotlin.Unit;
+
+public class ExpenseListActivity extends AppCompatActivity implements ExpenseAdapter.ExpenseClickListener {
+
+    private RecyclerView rvExpenses;
+    private View layoutEmpty;
+    private TextView tvTotalAmount;
+
+    private AppDatabase db;
+    private ExpenseRepository expenseRepository;
+    private SessionManager sessionManager;
+    private ExpenseAdapter adapter;
+    private AppExecutors executors;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_expense_list);
+
+        // Initialize database and utilities
+        db = AppDatabase.getInstance(this);
+        expenseRepository = ExpenseRepository.getInstance(this);
+        sessionManager = SessionManager.getInstance(this);
+        executors = AppExecutors.getInstance();
+
+        // Setup toolbar
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        // Initialize views
+        initViews();
+
+        // Setup RecyclerView
+        setupRecyclerView();
+
+        // Load category names and the total, then start paging
+        loadSummary();
+        observeExpenses();
+    }
+
+    private void initViews() {
+        rvExpenses = findViewById(R.id.rvExpenses);
+        layoutEmpty = findViewById(R.id.layoutEmpty);
+        tvTotalAmount = findViewById(R.id.tvTotalAmount);
+
+        // Filters aren't wired up yet
+        findViewById(R.id.cardFilter).setVisibility(View.GONE);
+    }
+
+    private void setupRecyclerView() {
+        adapter = new ExpenseAdapter(this);
+        rvExpenses.setLayoutManager(new LinearLayoutManager(this));
+        rvExpenses.setAdapter(adapter);
+
+        // Toggle empty state once the first page has loaded
+        adapter.addLoadStateListener(loadStates -> {
+            boolean empty = loadStates.getRefresh() instanceof LoadState.NotLoading
+                && adapter.getItemCount() == 0;
+            layoutEmpty.setVisibility(empty ? View.VISIBLE : View.GONE);
+            rvExpenses.setVisibility(empty ? View.GONE : View.VISIBLE);
+            return Unit.INSTANCE;
+        });
+    }
+
+    private void observeExpenses() {
+        int userId = sessionManager.getUserId();
+
+        // Pages of ITEMS_PER_PAGE, the next page is requested LOAD_MORE_THRESHOLD rows
+        // before the end, and pages scrolled far out of view are dropped again.
+        PagingConfig config = new PagingConfig(
+            Constants.ITEMS_PER_PAGE,
+            Constants.LOAD_MORE_THRESHOLD,
+            false,
+            Constants.ITEMS_PER_PAGE,
+            Constants.ITEMS_PER_PAGE * 5
+        );
+        Pager<ExpensePagingSource.Key, Expense> pager =
+            new Pager<>(config, () -> new ExpensePagingSource(db, userId));
+
+        LiveData<PagingData<Expense>> expenses =
+            PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), getLifecycle());
+        expenses.observe(this, pagingData -> adapter.submitData(getLifecycle(), pagingData));
+    }
+
+    private void loadSummary() {
+        executors.diskRead(this, AppExecutors.Priority.LOW, () -> {
+            Map<Integer, String> categoryNames = new HashMap<>();
+            for (Category category : CategoryRepository.getInstance(this).get().getCategories()) {
+                categoryNames.put(category.getCategoryId(), category.getCategoryName());
+            }
+            long total = db.monthlyTotalDao().getAllTimeTotal(sessionManager.getUserId());
+
+            executors.runOnMain(this, () -> {
+                adapter.setCategoryNames(categoryNames);
+                tvTotalAmount.setText(MoneyFormatter.getInstance().format(total));
+            });
+        });
+    }
+
+    @Override
+    public void onDeleteExpense(Expense expense) {
+        expenseRepository.delete(expense).thenRun(() -> {
+            executors.runOnMain(this, () -> {
+                Toast.makeText(this, R.string.expense_deleted, Toast.LENGTH_SHORT).show();
+                loadSummary();
+            });
+        });
+    }
+
+    @Override
+    public void onExpenseClick(Expense expense) {
+        // Handle expense click (if needed)
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            onBackPressed();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
@@ -10,15 +10,17 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.budgettracker.R;
 import com.budgettracker.database.AppDatabase;
+import com.budgettracker.database.DatabaseInitializer;
+import com.budgettracker.database.DatabaseWriter;
 import com.budgettracker.database.User;
+import com.budgettracker.utils.AppExecutors;
+import com.budgettracker.utils.PasswordHasher;
 import com.budgettracker.utils.SessionManager;
+import com.budgettracker.utils.StartupTrace;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 public class LoginActivity extends AppCompatActivity {
     private TextInputLayout tilEmail, tilPassword;
     private TextInputEditText etEmail, etPassword;
@@ -26,18 +28,25 @@ public class LoginActivity extends AppCompatActivity {
     private View tvRegister;
     
     private AppDatabase db;
+    private DatabaseWriter writer;
+    private PasswordHasher passwordHasher;
     private SessionManager sessionManager;
-    private ExecutorService executorService;
+    private AppExecutors executors;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.mark("LoginActivity.onCreate");
+        // Open the database while the layout inflates
+        DatabaseInitializer.start(this);
         setContentView(R.layout.activity_login);
 
         // Initialize database and session manager
         db = AppDatabase.getInstance(this);
-        sessionManager = new SessionManager(this);
-        executorService = Executors.newSingleThreadExecutor();
+        writer = DatabaseWriter.getInstance(this);
+        passwordHasher = PasswordHasher.getInstance(this);
+        sessionManager = SessionManager.getInstance(this);
+        executors = AppExecutors.getInstance();
 
         // Check if user is already logged in
         if (sessionManager.isLoggedIn()) {
@@ -46,6 +55,9 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
+        // Already done at startup unless this follows a logout; a no-op then
+        executors.io().execute(passwordHasher::prewarm);
+
         // Initialize views
         initViews();
         
@@ -90,36 +102,54 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
-        // Attempt login in background
-        executorService.execute(() -> {
-            User user = db.userDao().login(email, password);
-            
-            runOnUiThread(() -> {
-                if (user != null) {
-                    // Create login session
-                    sessionManager.createLoginSession(
-                        user.getUserId(),
-                        user.getName(),
-                        user.getEmail()
-                    );
-
-                    // Redirect to main activity
-                    Intent intent = new Intent(LoginActivity.this, MainActivity.class);
-                    intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-                    startActivity(intent);
-                    finish();
-                } else {
-                    Toast.makeText(LoginActivity.this, 
-                        R.string.error_invalid_credentials, 
-                        Toast.LENGTH_SHORT).show();
-                }
-            });
+        // Attempt login in background: one lookup on the unique email index, then
+        // the deliberately slow hash check on the io pool so it doesn't hold a reader
+        executors.diskRead(this, AppExecutors.Priority.HIGH, () -> {
+            User user = db.userDao().getUserByEmail(email);
+            executors.io().execute(() -> verifyLogin(user, password));
         });
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
+    private void verifyLogin(User user, String password) {
+        boolean valid;
+        if (user != null) {
+            valid = passwordHasher.verify(password, user.getPassword());
+        } else {
+            // Same cost as a real check, so timing doesn't reveal which emails exist
+            passwordHasher.verifyDummy(password);
+            valid = false;
+        }
+
+        executors.runOnMain(this, () -> {
+            if (valid) {
+                // Create login session
+                sessionManager.createLoginSession(
+                    user.getUserId(),
+                    user.getName(),
+                    user.getEmail()
+                );
+
+                // Redirect to main activity
+                Intent intent = new Intent(LoginActivity.this, MainActivity.class);
+                intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                startActivity(intent);
+                finish();
+            } else {
+                Toast.makeText(LoginActivity.this, 
+                    R.string.error_invalid_credentials, 
+                    Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        // Upgrade a plain-text or weaker hash now that the password is known. Done
+        // after the user is let in, so it doesn't add to login latency.
+        if (valid && passwordHasher.needsRehash(user.getPassword())) {
+            int userId = user.getUserId();
+            String hash = passwordHasher.hash(password);
+            writer.submit(db -> {
+                db.userDao().updatePassword(userId, hash);
+                return (Void) null;
+            });
+        }
     }
 }
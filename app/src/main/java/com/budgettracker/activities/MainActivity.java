@@ -8,22 +8,22 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.lifecycle.LiveData;
 
 import com.budgettracker.R;
 import com.budgettracker.database.AppDatabase;
 import com.budgettracker.database.Budget;
-import com.budgettracker.database.Expense;
+import com.budgettracker.database.DatabaseInitializer;
+import com.budgettracker.utils.BudgetAlertEngine;
+import com.budgettracker.utils.Constants;
+import com.budgettracker.utils.DateUtils;
+import com.budgettracker.utils.LiveDataUtils;
+import com.budgettracker.utils.MoneyFormatter;
 import com.budgettracker.utils.SessionManager;
+import com.budgettracker.utils.StartupTrace;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 
-import java.text.NumberFormat;
-import java.util.Calendar;
-import java.util.List;
-import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 public class MainActivity extends AppCompatActivity {
     private TextView tvTotalExpenses;
     private LinearProgressIndicator progressBudget;
@@ -32,19 +32,23 @@ public class MainActivity extends AppCompatActivity {
     
     private AppDatabase db;
     private SessionManager sessionManager;
-    private ExecutorService executorService;
-    private NumberFormat currencyFormatter;
+    private MoneyFormatter currencyFormatter;
+    private LiveData<Long> dashboardTotal;
+    private LiveData<Budget> dashboardBudget;
+    private int dashboardEpochMonth;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.mark("MainActivity.onCreate");
+        // Open the database while the layout inflates
+        DatabaseInitializer.start(this);
         setContentView(R.layout.activity_main);
 
         // Initialize database and session manager
         db = AppDatabase.getInstance(this);
-        sessionManager = new SessionManager(this);
-        executorService = Executors.newSingleThreadExecutor();
-        currencyFormatter = NumberFormat.getCurrencyInstance(Locale.getDefault());
+        sessionManager = SessionManager.getInstance(this);
+        currencyFormatter = MoneyFormatter.getInstance();
 
         // Check if user is logged in
         if (!sessionManager.isLoggedIn()) {
@@ -63,8 +67,8 @@ public class MainActivity extends AppCompatActivity {
         // Set click listeners
         setClickListeners();
 
-        // Load dashboard data
-        loadDashboardData();
+        // Observe dashboard data
+        observeDashboardData();
     }
 
     private void initViews() {
@@ -94,42 +98,52 @@ public class MainActivity extends AppCompatActivity {
             startActivity(new Intent(this, ReportActivity.class)));
     }
 
-    private void loadDashboardData() {
-        executorService.execute(() -> {
-            int userId = sessionManager.getUserId();
-            Calendar cal = Calendar.getInstance();
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            java.util.Date startDate = cal.getTime();
-            cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-            java.util.Date endDate = cal.getTime();
-
-            // Get current month's expenses
-            double totalExpenses = db.expenseDao()
-                .getTotalExpensesByDateRange(userId, startDate, endDate);
-
-            // Get current month's budget
-            String monthYear = String.format(Locale.getDefault(), "%d-%02d",
-                cal.get(Calendar.YEAR), cal.get(Calendar.MONTH) + 1);
-            Budget budget = db.budgetDao().getBudgetForMonth(userId, monthYear);
-
-            runOnUiThread(() -> updateDashboard(totalExpenses, budget));
+    // Observe the month total and budget. Room re-runs these queries only after a
+    // write to their tables, so returning to an unchanged dashboard costs nothing.
+    private void observeDashboardData() {
+        if (dashboardTotal != null) {
+            dashboardTotal.removeObservers(this);
+            dashboardBudget.removeObservers(this);
+        }
+
+        int userId = sessionManager.getUserId();
+        dashboardEpochMonth = DateUtils.getCurrentEpochMonth();
+
+        dashboardTotal = LiveDataUtils.debounce(
+            db.monthlyTotalDao().observeMonthTotal(userId, dashboardEpochMonth),
+            Constants.DASHBOARD_REFRESH_DEBOUNCE_MS);
+        dashboardBudget = LiveDataUtils.debounce(
+            db.budgetDao().observeBudgetForMonth(userId, dashboardEpochMonth),
+            Constants.DASHBOARD_REFRESH_DEBOUNCE_MS);
+
+        dashboardTotal.observe(this, total -> updateDashboard(total, dashboardBudget.getValue()));
+        dashboardBudget.observe(this, budget -> {
+            Long total = dashboardTotal.getValue();
+            if (total != null) {
+                updateDashboard(total, budget);
+            }
         });
     }
 
-    private void updateDashboard(double totalExpenses, Budget budget) {
+    private void updateDashboard(long totalExpenses, Budget budget) {
         // Update total expenses
         tvTotalExpenses.setText(currencyFormatter.format(totalExpenses));
+        StartupTrace.firstDashboard(this);
 
         // Update progress bar if budget exists
         if (budget != null) {
-            double maxBudget = budget.getMaxSpending();
-            int progress = (int) ((totalExpenses / maxBudget) * 100);
+            long maxBudget = budget.getMaxSpending().getMinorUnits();
+            int progress = maxBudget > 0
+                ? (int) Math.min(totalExpenses * 100 / maxBudget, Integer.MAX_VALUE)
+                : 100;
             progressBudget.setProgress(Math.min(progress, 100));
             
-            // Change progress color based on spending
-            if (progress >= 90) {
+            // Change progress color based on spending, at the same thresholds as the alerts
+            int level = maxBudget > 0
+                ? BudgetAlertEngine.levelOf(totalExpenses, maxBudget) : BudgetAlertEngine.LEVEL_DANGER;
+            if (level == BudgetAlertEngine.LEVEL_DANGER) {
                 progressBudget.setIndicatorColor(getColor(R.color.red));
-            } else if (progress >= 75) {
+            } else if (level == BudgetAlertEngine.LEVEL_WARNING) {
                 progressBudget.setIndicatorColor(getColor(R.color.orange));
             }
         }
@@ -155,12 +169,10 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        loadDashboardData(); // Refresh dashboard data
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
+        // Data changes arrive through the observers; only a new month needs a new query
+        if (dashboardTotal != null
+                && dashboardEpochMonth != DateUtils.getCurrentEpochMonth()) {
+            observeDashboardData();
+        }
     }
 }
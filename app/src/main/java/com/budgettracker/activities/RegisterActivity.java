@@ -9,25 +9,25 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.budgettracker.R;
-import com.budgettracker.database.AppDatabase;
+import com.budgettracker.database.DatabaseWriter;
 import com.budgettracker.database.User;
+import com.budgettracker.utils.AppExecutors;
+import com.budgettracker.utils.PasswordHasher;
 import com.budgettracker.utils.SessionManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 public class RegisterActivity extends AppCompatActivity {
     private TextInputLayout tilName, tilEmail, tilPassword, tilConfirmPassword;
     private TextInputEditText etName, etEmail, etPassword, etConfirmPassword;
     private MaterialButton btnRegister;
     private View tvLogin;
 
-    private AppDatabase db;
+    private DatabaseWriter writer;
+    private PasswordHasher passwordHasher;
     private SessionManager sessionManager;
-    private ExecutorService executorService;
+    private AppExecutors executors;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -35,9 +35,10 @@ public class RegisterActivity extends AppCompatActivity {
         setContentView(R.layout.activity_register);
 
         // Initialize database and session manager
-        db = AppDatabase.getInstance(this);
-        sessionManager = new SessionManager(this);
-        executorService = Executors.newSingleThreadExecutor();
+        writer = DatabaseWriter.getInstance(this);
+        passwordHasher = PasswordHasher.getInstance(this);
+        sessionManager = SessionManager.getInstance(this);
+        executors = AppExecutors.getInstance();
 
         // Initialize views
         initViews();
@@ -113,26 +114,20 @@ public class RegisterActivity extends AppCompatActivity {
             return;
         }
 
-        // Attempt registration in background
-        executorService.execute(() -> {
-            // Check if email already exists
-            boolean isEmailTaken = db.userDao().isEmailTaken(email);
-            
-            if (isEmailTaken) {
-                runOnUiThread(() -> {
-                    tilEmail.setError(getString(R.string.error_email_taken));
-                });
-                return;
-            }
-
-            // Create new user
-            User newUser = new User(name, email, password);
-            long userId = db.userDao().insertUser(newUser);
+        // Attempt registration in background: hash on the io pool, then insert. Emails
+        // are unique, so the insert itself reports a taken email, with no race.
+        executors.io().execute(() -> register(name, email, passwordHasher.hash(password)));
+    }
 
-            runOnUiThread(() -> {
-                if (userId > 0) {
+    private void register(String name, String email, String passwordHash) {
+        User newUser = new User(name, email, passwordHash);
+        writer.submit(db -> db.userDao().insertUser(newUser)).whenComplete((userId, error) -> {
+            executors.runOnMain(this, () -> {
+                if (error == null && userId < 0) {
+                    tilEmail.setError(getString(R.string.error_email_taken));
+                } else if (error == null && userId > 0) {
                     // Create login session
-                    sessionManager.createLoginSession((int) userId, name, email);
+                    sessionManager.createLoginSession(userId.intValue(), name, email);
 
                     Toast.makeText(RegisterActivity.this,
                         R.string.registration_successful,
@@ -151,10 +146,4 @@ public class RegisterActivity extends AppCompatActivity {
             });
         });
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
-    }
 }
@@ -1,6 +1,7 @@
 package com.budgettracker.adapters;
 
 import android.content.Context;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,43 +9,78 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.budgettracker.R;
 import com.budgettracker.database.Category;
+import com.budgettracker.utils.AppExecutors;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.CategoryViewHolder> {
-    
+// Categories with the user's expense count per category. The count is part of the
+// diffed item, so a count change rebinds just that row's count (via a payload) and
+// a list change rebinds only the rows that differ; diffs run off the main thread.
+public class CategoryAdapter extends ListAdapter<CategoryAdapter.Item, CategoryAdapter.CategoryViewHolder> {
+
+    private static final Object PAYLOAD_EXPENSE_COUNT = new Object();
+
     private final Context context;
     private final CategoryClickListener listener;
-    private Map<Integer, Integer> expenseCountMap = new HashMap<>();
+    private List<Category> categories = Collections.emptyList();
+    private Map<Integer, Integer> expenseCountMap = Collections.emptyMap();
+    // categoryId to position in the current list, rebuilt whenever it changes
+    private final Map<Integer, Integer> positionById = new HashMap<>();
+    // Formatted plural per count, so rebinding doesn't re-resolve the resource
+    private final SparseArray<String> expenseCountText = new SparseArray<>();
 
     public interface CategoryClickListener {
         void onDeleteCategory(Category category);
         void onCategoryClick(Category category);
     }
 
+    // A row: the category and the user's expense count for it
+    public static final class Item {
+        final Category category;
+        final int expenseCount;
+
+        Item(Category category, int expenseCount) {
+            this.category = category;
+            this.expenseCount = expenseCount;
+        }
+    }
+
     public CategoryAdapter(Context context, CategoryClickListener listener) {
-        super(DIFF_CALLBACK);
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+            .setBackgroundThreadExecutor(AppExecutors.getInstance().diffing())
+            .build());
         this.context = context;
         this.listener = listener;
     }
 
-    private static final DiffUtil.ItemCallback<Category> DIFF_CALLBACK = new DiffUtil.ItemCallback<Category>() {
+    private static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = new DiffUtil.ItemCallback<Item>() {
         @Override
-        public boolean areItemsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
-            return oldItem.getCategoryId() == newItem.getCategoryId();
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.category.getCategoryId() == newItem.category.getCategoryId();
         }
 
         @Override
-        public boolean areContentsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
-            return oldItem.getCategoryName().equals(newItem.getCategoryName());
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.expenseCount == newItem.expenseCount
+                && oldItem.category.getCategoryName().equals(newItem.category.getCategoryName());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Item oldItem, @NonNull Item newItem) {
+            boolean sameName = oldItem.category.getCategoryName().equals(newItem.category.getCategoryName());
+            return sameName ? PAYLOAD_EXPENSE_COUNT : null;
         }
     };
 
@@ -58,13 +94,65 @@ public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.Categ
 
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        Category category = getItem(position);
-        holder.bind(category);
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (isExpenseCountOnly(payloads)) {
+            holder.bindExpenseCount(getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private static boolean isExpenseCountOnly(List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            return false;
+        }
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_EXPENSE_COUNT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<Item> previousList, @NonNull List<Item> currentList) {
+        positionById.clear();
+        for (int i = 0; i < currentList.size(); i++) {
+            positionById.put(currentList.get(i).category.getCategoryId(), i);
+        }
+    }
+
+    public void setCategories(List<Category> categories) {
+        this.categories = categories;
+        submitItems();
     }
 
     public void setExpenseCount(Map<Integer, Integer> countMap) {
         this.expenseCountMap = countMap;
-        notifyDataSetChanged();
+        submitItems();
+    }
+
+    private void submitItems() {
+        List<Item> items = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            items.add(new Item(category, expenseCountMap.getOrDefault(category.getCategoryId(), 0)));
+        }
+        submitList(items);
+    }
+
+    private String formatExpenseCount(int expenseCount) {
+        String text = expenseCountText.get(expenseCount);
+        if (text == null) {
+            text = context.getResources()
+                .getQuantityString(R.plurals.expense_count, expenseCount, expenseCount);
+            expenseCountText.put(expenseCount, text);
+        }
+        return text;
     }
 
     class CategoryViewHolder extends RecyclerView.ViewHolder {
@@ -77,31 +165,45 @@ public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.Categ
             tvCategoryName = itemView.findViewById(R.id.tvCategoryName);
             tvExpenseCount = itemView.findViewById(R.id.tvExpenseCount);
             btnDelete = itemView.findViewById(R.id.btnDelete);
-        }
-
-        void bind(final Category category) {
-            tvCategoryName.setText(category.getCategoryName());
-            
-            // Set expense count
-            int expenseCount = expenseCountMap.getOrDefault(category.getCategoryId(), 0);
-            String expenseText = context.getResources()
-                .getQuantityString(R.plurals.expense_count, expenseCount, expenseCount);
-            tvExpenseCount.setText(expenseText);
 
-            // Set click listeners
-            itemView.setOnClickListener(v -> listener.onCategoryClick(category));
+            // Set once; they look up the row when clicked, so a partial rebind
+            // can't leave them holding a stale count
+            itemView.setOnClickListener(v -> {
+                Item item = currentItem();
+                if (item != null) {
+                    listener.onCategoryClick(item.category);
+                }
+            });
 
             btnDelete.setOnClickListener(v -> {
-                if (expenseCount > 0) {
+                Item item = currentItem();
+                if (item == null) {
+                    return;
+                }
+                if (item.expenseCount > 0) {
                     // Show warning dialog if category has expenses
-                    showDeleteWarningDialog(category, expenseCount);
+                    showDeleteWarningDialog(item.category, item.expenseCount);
                 } else {
                     // Delete directly if no expenses
-                    listener.onDeleteCategory(category);
+                    listener.onDeleteCategory(item.category);
                 }
             });
         }
 
+        void bind(Item item) {
+            tvCategoryName.setText(item.category.getCategoryName());
+            bindExpenseCount(item);
+        }
+
+        void bindExpenseCount(Item item) {
+            tvExpenseCount.setText(formatExpenseCount(item.expenseCount));
+        }
+
+        private Item currentItem() {
+            int position = getBindingAdapterPosition();
+            return position != RecyclerView.NO_POSITION ? getItem(position) : null;
+        }
+
         private void showDeleteWarningDialog(Category category, int expenseCount) {
             new MaterialAlertDialogBuilder(context)
                 .setTitle(R.string.delete_category)
@@ -114,18 +216,14 @@ public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.Categ
         }
     }
 
-    // Helper method to find category position by ID
+    // Position of the category in the current list, O(1)
     public int findPositionById(int categoryId) {
-        for (int i = 0; i < getCurrentList().size(); i++) {
-            if (getItem(i).getCategoryId() == categoryId) {
-                return i;
-            }
-        }
-        return RecyclerView.NO_POSITION;
+        Integer position = positionById.get(categoryId);
+        return position != null ? position : RecyclerView.NO_POSITION;
     }
 
     // Helper method to get category at position
     public Category getCategoryAt(int position) {
-        return getItem(position);
+        return getItem(position).category;
     }
 }
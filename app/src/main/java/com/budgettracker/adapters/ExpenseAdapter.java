@@ -0,0 +1,131 @@
+package com.budgettracker.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.budgettracker.R;
+import com.budgettracker.database.Expense;
+import com.budgettracker.utils.DateUtils;
+import com.budgettracker.utils.MoneyFormatter;
+import com.budgettracker.utils.ReceiptThumbnailCache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+public class ExpenseAdapter extends PagingDataAdapter<Expense, ExpenseAdapter.ExpenseViewHolder> {
+
+    private final ExpenseClickListener listener;
+    private final MoneyFormatter currencyFormatter = MoneyFormatter.getInstance();
+    private Map<Integer, String> categoryNames = Collections.emptyMap();
+
+    public interface ExpenseClickListener {
+        void onDeleteExpense(Expense expense);
+        void onExpenseClick(Expense expense);
+    }
+
+    public ExpenseAdapter(ExpenseClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+    }
+
+    private static final DiffUtil.ItemCallback<Expense> DIFF_CALLBACK = new DiffUtil.ItemCallback<Expense>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Expense oldItem, @NonNull Expense newItem) {
+            return oldItem.getExpenseId() == newItem.getExpenseId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Expense oldItem, @NonNull Expense newItem) {
+            return oldItem.getCategoryId() == newItem.getCategoryId()
+                && oldItem.getDate().equals(newItem.getDate())
+                && oldItem.getTime().equals(newItem.getTime())
+                && oldItem.getDescription().equals(newItem.getDescription())
+                && oldItem.getAmount().equals(newItem.getAmount())
+                && Objects.equals(oldItem.getPhotoUri(), newItem.getPhotoUri());
+        }
+    };
+
+    @NonNull
+    @Override
+    public ExpenseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_expense, parent, false);
+        return new ExpenseViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ExpenseViewHolder holder, int position) {
+        // Null only while a page is still loading (placeholders are disabled)
+        Expense expense = getItem(position);
+        if (expense != null) {
+            holder.bind(expense);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ExpenseViewHolder holder) {
+        holder.unbind();
+    }
+
+    public void setCategoryNames(Map<Integer, String> categoryNames) {
+        this.categoryNames = categoryNames;
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    class ExpenseViewHolder extends RecyclerView.ViewHolder {
+        private final TextView tvCategory;
+        private final TextView tvDescription;
+        private final TextView tvAmount;
+        private final TextView tvDateTime;
+        private final ImageView ivReceiptPreview;
+        private final ImageButton btnDelete;
+        private final ReceiptThumbnailCache thumbnailCache;
+
+        ExpenseViewHolder(View itemView) {
+            super(itemView);
+            tvCategory = itemView.findViewById(R.id.tvCategory);
+            tvDescription = itemView.findViewById(R.id.tvDescription);
+            tvAmount = itemView.findViewById(R.id.tvAmount);
+            tvDateTime = itemView.findViewById(R.id.tvDateTime);
+            ivReceiptPreview = itemView.findViewById(R.id.ivReceiptPreview);
+            btnDelete = itemView.findViewById(R.id.btnDelete);
+            thumbnailCache = ReceiptThumbnailCache.getInstance(itemView.getContext());
+        }
+
+        void bind(final Expense expense) {
+            String categoryName = categoryNames.get(expense.getCategoryId());
+            tvCategory.setText(categoryName != null ? categoryName : "");
+            tvDescription.setText(expense.getDescription());
+            tvAmount.setText(currencyFormatter.format(expense.getAmount()));
+            tvDateTime.setText(DateUtils.formatDateForDisplay(expense.getDate())
+                + " • " + expense.getTime());
+
+            // Receipt thumbnail, never decoded from the full JPEG on scroll
+            if (expense.getPhotoUri() != null) {
+                ivReceiptPreview.setVisibility(View.VISIBLE);
+                thumbnailCache.load(expense.getPhotoUri(), ivReceiptPreview);
+            } else {
+                unbind();
+            }
+
+            // Set click listeners
+            itemView.setOnClickListener(v -> listener.onExpenseClick(expense));
+            btnDelete.setOnClickListener(v -> listener.onDeleteExpense(expense));
+        }
+
+        void unbind() {
+            thumbnailCache.clear(ivReceiptPreview);
+            ivReceiptPreview.setVisibility(View.GONE);
+        }
+    }
+}
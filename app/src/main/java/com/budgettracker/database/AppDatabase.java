@@ -1,43 +1,167 @@
 package com.budgettracker.database;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.budgettracker.utils.AppExecutors;
+import com.budgettracker.utils.Constants;
+import com.budgettracker.utils.Money;
 
 @Database(
     entities = {
         User.class,
         Category.class,
         Expense.class,
-        Budget.class
+        Budget.class,
+        MonthlyCategoryTotal.class,
+        ExpenseFts.class,
+        CategoryFts.class,
+        ReceiptRef.class
     },
-    version = 1,
+    version = 10,
     exportSchema = false
 )
-@TypeConverters({DateConverter.class})
+@TypeConverters({DateConverter.class, MoneyConverter.class})
 public abstract class AppDatabase extends RoomDatabase {
     private static final String DATABASE_NAME = "budget_tracker_db";
     private static volatile AppDatabase instance;
+    // Null unless Constants.DB_QUERY_TRACING is on
+    private static QueryTracer queryTracer;
+
+    // Start time of the outermost transaction on this thread, and nesting depth
+    private final ThreadLocal<long[]> transactionStart = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
 
     // DAOs
     public abstract UserDao userDao();
     public abstract CategoryDao categoryDao();
     public abstract ExpenseDao expenseDao();
     public abstract BudgetDao budgetDao();
+    public abstract MonthlyTotalDao monthlyTotalDao();
+    public abstract ReceiptDao receiptDao();
+
+    // Triggers aren't part of Room's generated schema, so install them on a fresh database
+    private static final Callback CREATE_TRIGGERS = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            RollupTriggers.create(db);
+            ReceiptTriggers.create(db);
+        }
+    };
 
-    // Singleton pattern to get database instance
-    public static synchronized AppDatabase getInstance(Context context) {
-        if (instance == null) {
-            instance = Room.databaseBuilder(
+    // Singleton pattern to get database instance. Room runs LiveData and paging
+    // queries on the shared reader pool and transactions on the writer thread, so
+    // there is one set of database threads in the process. Every version has a
+    // migration, so only a downgrade may discard data.
+    // Double-checked: once built, callers only read the volatile field.
+    public static AppDatabase getInstance(Context context) {
+        AppDatabase result = instance;
+        if (result != null) {
+            return result;
+        }
+        synchronized (AppDatabase.class) {
+            if (instance != null) {
+                return instance;
+            }
+            AppExecutors executors = AppExecutors.getInstance();
+            Builder<AppDatabase> builder = Room.databaseBuilder(
                 context.getApplicationContext(),
                 AppDatabase.class,
                 DATABASE_NAME)
-                .fallbackToDestructiveMigration()
-                .build();
+                .setJournalMode(Constants.DB_WRITE_AHEAD_LOGGING
+                    ? JournalMode.WRITE_AHEAD_LOGGING : JournalMode.TRUNCATE)
+                .setQueryExecutor(executors.diskRead())
+                .setTransactionExecutor(executors.diskWrite())
+                .addMigrations(Migrations.ALL)
+                .addCallback(CREATE_TRIGGERS)
+                .fallbackToDestructiveMigrationOnDowngrade();
+            if (Constants.DB_QUERY_TRACING) {
+                QueryTracer tracer = new QueryTracer(Constants.DB_SLOW_QUERY_MS);
+                // Runs inline on the database thread; counting is cheaper than a handoff
+                builder.setQueryCallback((sql, bindArgs) -> tracer.countExecution(sql), Runnable::run);
+                queryTracer = tracer;
+            }
+            result = builder.build();
+            instance = result;
+            return result;
+        }
+    }
+
+    // Null unless tracing is enabled
+    @Nullable
+    public QueryTracer getQueryTracer() {
+        return queryTracer;
+    }
+
+    @NonNull
+    @Override
+    public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal signal) {
+        QueryTracer tracer = queryTracer;
+        if (tracer == null) {
+            return super.query(query, signal);
+        }
+        long start = SystemClock.elapsedRealtimeNanos();
+        return new TracedCursor(super.query(query, signal), tracer, query.getSql(), start);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void beginTransaction() {
+        long[] state = transactionStart.get();
+        if (queryTracer != null && state[1]++ == 0) {
+            state[0] = SystemClock.elapsedRealtimeNanos();
+        }
+        super.beginTransaction();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void endTransaction() {
+        super.endTransaction();
+        long[] state = transactionStart.get();
+        if (queryTracer != null && state[1] > 0 && --state[1] == 0) {
+            queryTracer.record(QueryTracer.TRANSACTION, SystemClock.elapsedRealtimeNanos() - state[0], 0);
+        }
+    }
+
+    // Records the query when Room's generated code closes the cursor, by which time
+    // every row has been read
+    private static class TracedCursor extends CursorWrapper {
+        private final QueryTracer tracer;
+        private final String sql;
+        private final long start;
+        private boolean recorded;
+
+        TracedCursor(Cursor cursor, QueryTracer tracer, String sql, long start) {
+            super(cursor);
+            this.tracer = tracer;
+            this.sql = sql;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            if (!recorded) {
+                recorded = true;
+                int rows = isClosed() ? 0 : getCount();
+                tracer.record(sql, SystemClock.elapsedRealtimeNanos() - start, rows);
+            }
+            super.close();
         }
-        return instance;
     }
 }
 
@@ -53,3 +177,16 @@ class DateConverter {
         return date == null ? null : date.getTime();
     }
 }
+
+// Money converter for Room, stored as an INTEGER count of minor units
+class MoneyConverter {
+    @androidx.room.TypeConverter
+    public static Money fromMinorUnits(Long value) {
+        return value == null ? null : Money.ofMinorUnits(value);
+    }
+
+    @androidx.room.TypeConverter
+    public static Long moneyToMinorUnits(Money money) {
+        return money == null ? null : money.getMinorUnits();
+    }
+}
@@ -2,29 +2,36 @@ package com.budgettracker.database;
 
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
+import com.budgettracker.utils.Money;
 
 @Entity(tableName = "budgets",
         foreignKeys = @ForeignKey(entity = User.class,
                 parentColumns = "userId",
-                childColumns = "userId"))
+                childColumns = "userId"),
+        indices = @Index(value = {"userId", "epochMonth"}, unique = true))
 public class Budget {
     @PrimaryKey(autoGenerate = true)
     private int budgetId;
 
     private int userId;
     
-    @NonNull
-    private String monthYear;
+    // (year - 1970) * 12 + month - 1, see DateUtils.toEpochMonth
+    private int epochMonth;
     
-    private double minSpending;
-    private double maxSpending;
+    @NonNull
+    private Money minSpending;
+
+    @NonNull
+    private Money maxSpending;
 
     // Constructor
-    public Budget(int userId, @NonNull String monthYear, double minSpending, double maxSpending) {
+    public Budget(int userId, int epochMonth, @NonNull Money minSpending,
+                  @NonNull Money maxSpending) {
         this.userId = userId;
-        this.monthYear = monthYear;
+        this.epochMonth = epochMonth;
         this.minSpending = minSpending;
         this.maxSpending = maxSpending;
     }
@@ -46,28 +53,29 @@ public class Budget {
         this.userId = userId;
     }
 
-    @NonNull
-    public String getMonthYear() {
-        return monthYear;
+    public int getEpochMonth() {
+        return epochMonth;
     }
 
-    public void setMonthYear(@NonNull String monthYear) {
-        this.monthYear = monthYear;
+    public void setEpochMonth(int epochMonth) {
+        this.epochMonth = epochMonth;
     }
 
-    public double getMinSpending() {
+    @NonNull
+    public Money getMinSpending() {
         return minSpending;
     }
 
-    public void setMinSpending(double minSpending) {
+    public void setMinSpending(@NonNull Money minSpending) {
         this.minSpending = minSpending;
     }
 
-    public double getMaxSpending() {
+    @NonNull
+    public Money getMaxSpending() {
         return maxSpending;
     }
 
-    public void setMaxSpending(double maxSpending) {
+    public void setMaxSpending(@NonNull Money maxSpending) {
         this.maxSpending = maxSpending;
     }
 }
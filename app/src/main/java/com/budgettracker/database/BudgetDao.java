@@ -1,12 +1,17 @@
 package com.budgettracker.database;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import java.util.List;
 
+// Budget periods are epoch months; every lookup below is a range or point query on
+// the unique (userId, epochMonth) index.
 @Dao
 public interface BudgetDao {
     @Insert
@@ -18,14 +23,17 @@ public interface BudgetDao {
     @Delete
     void deleteBudget(Budget budget);
 
-    @Query("SELECT * FROM budgets WHERE userId = :userId ORDER BY monthYear DESC")
+    @Query("SELECT * FROM budgets WHERE userId = :userId ORDER BY epochMonth DESC")
     List<Budget> getAllBudgetsByUser(int userId);
 
-    @Query("SELECT * FROM budgets WHERE userId = :userId AND monthYear = :monthYear LIMIT 1")
-    Budget getBudgetForMonth(int userId, String monthYear);
+    @Query("SELECT * FROM budgets WHERE userId = :userId AND epochMonth = :epochMonth LIMIT 1")
+    Budget getBudgetForMonth(int userId, int epochMonth);
 
-    @Query("SELECT EXISTS(SELECT 1 FROM budgets WHERE userId = :userId AND monthYear = :monthYear)")
-    boolean hasBudgetForMonth(int userId, String monthYear);
+    @Query("SELECT * FROM budgets WHERE userId = :userId AND epochMonth = :epochMonth LIMIT 1")
+    LiveData<Budget> observeBudgetForMonth(int userId, int epochMonth);
+
+    @Query("SELECT EXISTS(SELECT 1 FROM budgets WHERE userId = :userId AND epochMonth = :epochMonth)")
+    boolean hasBudgetForMonth(int userId, int epochMonth);
 
     @Query("SELECT * FROM budgets WHERE budgetId = :budgetId LIMIT 1")
     Budget getBudgetById(int budgetId);
@@ -33,10 +41,42 @@ public interface BudgetDao {
     @Query("DELETE FROM budgets WHERE userId = :userId")
     void deleteAllBudgetsByUser(int userId);
 
-    @Query("SELECT * FROM budgets WHERE userId = :userId AND " +
-           "CAST(SUBSTR(monthYear, 1, 4) AS INTEGER) = :year")
+    @Query("SELECT * FROM budgets WHERE userId = :userId " +
+           "AND epochMonth BETWEEN (:year - 1970) * 12 AND (:year - 1970) * 12 + 11 " +
+           "ORDER BY epochMonth")
     List<Budget> getBudgetsByYear(int userId, int year);
 
-    @Query("SELECT AVG((maxSpending + minSpending) / 2) FROM budgets WHERE userId = :userId")
-    double getAverageBudget(int userId);
+    // Inclusive range of epoch months
+    @Query("SELECT * FROM budgets WHERE userId = :userId " +
+           "AND epochMonth BETWEEN :fromEpochMonth AND :toEpochMonth ORDER BY epochMonth")
+    List<Budget> getBudgetsInRange(int userId, int fromEpochMonth, int toEpochMonth);
+
+    // Average in minor units
+    @Query("SELECT IFNULL(CAST(ROUND(AVG((maxSpending + minSpending) / 2.0)) AS INTEGER), 0) " +
+           "FROM budgets WHERE userId = :userId")
+    long getAverageBudget(int userId);
+
+    // Returns -1 if the user already has a budget for that month
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertBudgetIfAbsent(Budget budget);
+
+    @Query("UPDATE budgets SET minSpending = :minSpending, maxSpending = :maxSpending " +
+           "WHERE userId = :userId AND epochMonth = :epochMonth")
+    int updateSpendingForMonth(int userId, int epochMonth, long minSpending, long maxSpending);
+
+    @Query("SELECT budgetId FROM budgets WHERE userId = :userId AND epochMonth = :epochMonth")
+    int getBudgetIdForMonth(int userId, int epochMonth);
+
+    // Insert or update the budget for its month, keeping the existing budgetId;
+    // the unique index makes this safe against a concurrent check-then-insert
+    @Transaction
+    default int upsertBudget(Budget budget) {
+        long budgetId = insertBudgetIfAbsent(budget);
+        if (budgetId != -1) {
+            return (int) budgetId;
+        }
+        updateSpendingForMonth(budget.getUserId(), budget.getEpochMonth(),
+            budget.getMinSpending().getMinorUnits(), budget.getMaxSpending().getMinorUnits());
+        return getBudgetIdForMonth(budget.getUserId(), budget.getEpochMonth());
+    }
 }
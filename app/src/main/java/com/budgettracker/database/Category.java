@@ -1,10 +1,12 @@
 package com.budgettracker.database;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
-@Entity(tableName = "categories")
+@Entity(tableName = "categories",
+        indices = {@Index(value = "categoryName", unique = true)})
 public class Category {
     @PrimaryKey(autoGenerate = true)
     private int categoryId;
@@ -3,13 +3,15 @@ package com.budgettracker.database;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 import java.util.List;
 
 @Dao
 public interface CategoryDao {
-    @Insert
+    // Returns -1 if the name is already taken
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
     long insertCategory(Category category);
 
     @Update
@@ -24,12 +26,30 @@ public interface CategoryDao {
     @Query("SELECT * FROM categories WHERE categoryId = :categoryId LIMIT 1")
     Category getCategoryById(int categoryId);
 
-    @Query("SELECT EXISTS(SELECT 1 FROM categories WHERE categoryName = :categoryName)")
-    boolean isCategoryExists(String categoryName);
+    // Full-text search over names; match comes from FtsQuery. Names that start with
+    // the leading term rank first, then alphabetical. The same simplified ranking
+    // and OFFSET paging as ExpenseDao.searchExpenses.
+    @Query("SELECT c.* FROM categories_fts CROSS JOIN categories c ON c.categoryId = categories_fts.docid " +
+           "WHERE categories_fts MATCH :match " +
+           "ORDER BY c.categoryName LIKE :leadingTerm || '%' DESC, c.categoryName " +
+           "LIMIT :limit OFFSET :offset")
+    List<Category> searchCategories(String match, String leadingTerm, int limit, int offset);
 
-    @Query("SELECT * FROM categories WHERE categoryName LIKE '%' || :search || '%'")
-    List<Category> searchCategories(String search);
+    default List<Category> searchCategories(FtsQuery query, int limit, int offset) {
+        return searchCategories(query.getMatch(), query.getLeadingTerm(), limit, offset);
+    }
 
     @Query("DELETE FROM categories WHERE categoryId = :categoryId")
     void deleteCategoryById(int categoryId);
+
+    // One grouped pass over the (userId, categoryId, date) index
+    @Query("SELECT categoryId, COUNT(*) AS expenseCount FROM expenses " +
+           "WHERE userId = :userId GROUP BY categoryId")
+    List<CategoryExpenseCount> getExpenseCountsByCategory(int userId);
+
+    // Static class for category-wise expense count
+    class CategoryExpenseCount {
+        public int categoryId;
+        public int expenseCount;
+    }
 }
@@ -0,0 +1,30 @@
+package com.budgettracker.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+// Full-text index over category names, kept in sync with categories by Room's
+// triggers (docid = categoryId)
+@Fts4(contentEntity = Category.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "categories_fts")
+public class CategoryFts {
+    @NonNull
+    private String categoryName;
+
+    // Constructor
+    public CategoryFts(@NonNull String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(@NonNull String categoryName) {
+        this.categoryName = categoryName;
+    }
+}
@@ -0,0 +1,187 @@
+package com.budgettracker.database;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.budgettracker.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Process-wide, in-memory copy of the categories table. The table is small, global
+// and read on nearly every screen, so it is loaded once and kept as an immutable
+// Snapshot; each insert, update or delete made through this class writes to the
+// database through DatabaseWriter and, once that commits, publishes a new snapshot
+// (copy-on-write), so readers never lock and never see a half-applied change.
+//
+// Category writes must go through here rather than CategoryDao, or the snapshot
+// goes stale. Snapshot Category objects are shared; treat them as read-only.
+public class CategoryRepository {
+
+    // Immutable view of the table at one point in time, in categoryId order
+    public static class Snapshot {
+        private final List<Category> categories;
+        private final Map<Integer, Category> byId;
+        private final Map<String, Integer> idsByName;
+
+        Snapshot(Map<Integer, Category> byId) {
+            Map<String, Integer> idsByName = new HashMap<>();
+            for (Category category : byId.values()) {
+                idsByName.put(category.getCategoryName(), category.getCategoryId());
+            }
+            this.byId = Collections.unmodifiableMap(byId);
+            this.idsByName = Collections.unmodifiableMap(idsByName);
+            this.categories = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+        }
+
+        public List<Category> getCategories() {
+            return categories;
+        }
+
+        public Category getById(int categoryId) {
+            return byId.get(categoryId);
+        }
+
+        // Exact match, as the unique index compares; 0 if there is none
+        public int getIdByName(String categoryName) {
+            Integer categoryId = idsByName.get(categoryName);
+            return categoryId != null ? categoryId : 0;
+        }
+
+        public boolean containsName(String categoryName) {
+            return idsByName.containsKey(categoryName);
+        }
+
+        // Copy of the id map in categoryId order, for building the next snapshot
+        LinkedHashMap<Integer, Category> copyById() {
+            return new LinkedHashMap<>(byId);
+        }
+    }
+
+    private static volatile CategoryRepository instance;
+
+    private final CategoryDao dao;
+    private final DatabaseWriter writer;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final MutableLiveData<Snapshot> observable = new MutableLiveData<Snapshot>() {
+        @Override
+        protected void onActive() {
+            // First observer before anyone loaded: load on a reader thread
+            if (snapshot == null) {
+                executors.diskRead(AppExecutors.Priority.HIGH, CategoryRepository.this::get);
+            }
+        }
+    };
+    // Written under this lock, read without it
+    private volatile Snapshot snapshot;
+
+    private CategoryRepository(AppDatabase db, DatabaseWriter writer) {
+        this.dao = db.categoryDao();
+        this.writer = writer;
+    }
+
+    public static CategoryRepository getInstance(Context context) {
+        CategoryRepository result = instance;
+        if (result == null) {
+            synchronized (CategoryRepository.class) {
+                result = instance;
+                if (result == null) {
+                    result = new CategoryRepository(AppDatabase.getInstance(context),
+                        DatabaseWriter.getInstance(context));
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Current snapshot, loading it first if needed. May read the database, so call
+    // it off the main thread.
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                LinkedHashMap<Integer, Category> byId = new LinkedHashMap<>();
+                for (Category category : dao.getAllCategories()) {
+                    byId.put(category.getCategoryId(), category);
+                }
+                publish(new Snapshot(byId));
+            }
+            return snapshot;
+        }
+    }
+
+    // Current snapshot, or null if it hasn't been loaded yet; never reads the database
+    public Snapshot peek() {
+        return snapshot;
+    }
+
+    // Emits the current snapshot and every later one, on the main thread
+    public LiveData<Snapshot> observe() {
+        return observable;
+    }
+
+    // Completes with the new categoryId, or -1 if the name is taken (names are
+    // unique, so the insert is the existence check)
+    public CompletableFuture<Long> insert(Category category) {
+        Category copy = copyOf(category);
+        return writer.submit(db -> db.categoryDao().insertCategory(copy), categoryId -> {
+            if (categoryId > 0) {
+                copy.setCategoryId(categoryId.intValue());
+                apply(byId -> byId.put(copy.getCategoryId(), copy));
+            }
+        });
+    }
+
+    public CompletableFuture<Void> update(Category category) {
+        Category copy = copyOf(category);
+        return writer.submit(db -> {
+            db.categoryDao().updateCategory(copy);
+            return (Void) null;
+        }, result -> apply(byId -> byId.replace(copy.getCategoryId(), copy)));
+    }
+
+    public CompletableFuture<Void> delete(Category category) {
+        int categoryId = category.getCategoryId();
+        return writer.submit(db -> {
+            db.categoryDao().deleteCategoryById(categoryId);
+            return (Void) null;
+        }, result -> apply(byId -> byId.remove(categoryId)));
+    }
+
+    // Runs on the writer thread after each commit, so changes apply in commit order.
+    // Shares the lock with get(): a load that read before the commit publishes first
+    // and is then patched, and one that starts after it already sees the change. With
+    // nothing loaded there is nothing to patch.
+    private synchronized void apply(Consumer<LinkedHashMap<Integer, Category>> change) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            LinkedHashMap<Integer, Category> byId = current.copyById();
+            change.accept(byId);
+            publish(new Snapshot(byId));
+        }
+    }
+
+    // The caller keeps its own object; the snapshot holds a private copy
+    private static Category copyOf(Category category) {
+        Category copy = new Category(category.getCategoryName());
+        copy.setCategoryId(category.getCategoryId());
+        return copy;
+    }
+
+    private void publish(Snapshot next) {
+        snapshot = next;
+        observable.postValue(next);
+    }
+}
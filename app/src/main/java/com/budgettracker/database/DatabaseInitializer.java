@@ -0,0 +1,70 @@
+package com.budgettracker.database;
+
+import android.content.Context;
+import android.os.Trace;
+
+import com.budgettracker.utils.AppExecutors;
+import com.budgettracker.utils.Constants;
+import com.budgettracker.utils.DateUtils;
+import com.budgettracker.utils.PasswordHasher;
+import com.budgettracker.utils.ReceiptGcWorker;
+import com.budgettracker.utils.SessionManager;
+import com.budgettracker.utils.StartupTrace;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Opens the database on the io pool as soon as the first activity is created, so
+// the open, any pending migration and the first schema parse overlap with layout
+// inflation instead of delaying the first query.
+//
+// The warm-up runs the dashboard's and the category dropdown's own DAO queries:
+// SQLite caches prepared statements per connection keyed by SQL text, so going
+// through the DAO guarantees the text matches what the screens will run, and it
+// pulls the pages those queries touch into the OS file cache. Other connections in
+// the WAL pool still parse the schema on their first use.
+public class DatabaseInitializer {
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    // Private constructor to prevent instantiation
+    private DatabaseInitializer() {}
+
+    // Idempotent; call from every entry point before setContentView
+    public static void start(Context context) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        AppExecutors.getInstance().io().execute(() -> prewarm(appContext));
+    }
+
+    private static void prewarm(Context context) {
+        Trace.beginSection("DatabaseInitializer.prewarm");
+        try {
+            AppDatabase db = AppDatabase.getInstance(context);
+            // Opening runs migrations and the open callback, and reads the schema
+            db.getOpenHelper().getWritableDatabase();
+            StartupTrace.mark("database open");
+
+            CategoryRepository.getInstance(context).get();
+            StartupTrace.mark("categories loaded");
+
+            int userId = SessionManager.getInstance(context).getUserId();
+            if (userId != -1) {
+                int epochMonth = DateUtils.getCurrentEpochMonth();
+                db.monthlyTotalDao().getMonthTotal(userId, epochMonth);
+                db.budgetDao().getBudgetForMonth(userId, epochMonth);
+                db.expenseDao().getLatestExpenses(userId, Constants.ITEMS_PER_PAGE);
+                StartupTrace.mark("dashboard queries warmed");
+            } else {
+                // Login or registration is next; calibrate the hash cost (first launch
+                // only) and build the dummy hash now rather than on the user's first attempt
+                PasswordHasher.getInstance(context).prewarm();
+            }
+
+            // Keeps an existing schedule; WorkManager's first use reads its own database
+            ReceiptGcWorker.schedule(context);
+        } finally {
+            Trace.endSection();
+        }
+    }
+}
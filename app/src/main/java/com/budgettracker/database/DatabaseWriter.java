@@ -0,0 +1,172 @@
+package com.budgettracker.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.budgettracker.utils.AppExecutors;
+import com.budgettracker.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// The one way to change the database. Commands queue up and run in submission order
+// on the diskWrite thread; everything that arrives within DB_WRITE_COALESCE_MS of the
+// first queued command is committed in a single transaction, so a burst of writes
+// costs one fsync instead of one each.
+//
+// A command that throws fails only its own future: the transaction is rolled back
+// and the rest of the batch runs again without it. Commands may therefore run more
+// than once and must only touch the database; do any other side effect in an
+// AfterCommit, which runs on the writer thread right after the commit, in
+// submission order, before the future completes.
+//
+// Check-then-act sequences belong inside one command, where no other write can
+// interleave. Never block on a future from inside a command: it would wait forever.
+public class DatabaseWriter {
+    private static final String TAG = "DatabaseWriter";
+
+    // A mutation, run inside the batch's transaction
+    public interface Command<T> {
+        T run(AppDatabase db);
+    }
+
+    // Side effect of a committed command. Unlike a callback on the future, which
+    // runs on whichever thread attaches it if the future is already done, this is
+    // guaranteed to run on the writer thread in commit order.
+    public interface AfterCommit<T> {
+        void run(T result);
+    }
+
+    private static final class Pending<T> {
+        final Command<T> command;
+        final AfterCommit<T> afterCommit;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+
+        Pending(Command<T> command, AfterCommit<T> afterCommit) {
+            this.command = command;
+            this.afterCommit = afterCommit;
+        }
+
+        void run(AppDatabase db) {
+            result = command.run(db);
+        }
+
+        void complete() {
+            if (afterCommit != null) {
+                try {
+                    afterCommit.run(result);
+                } catch (RuntimeException e) {
+                    // The write is committed either way; don't let a listener fail it
+                    Log.e(TAG, "After-commit action failed", e);
+                }
+            }
+            future.complete(result);
+        }
+    }
+
+    private static volatile DatabaseWriter instance;
+
+    private final AppDatabase db;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final Object lock = new Object();
+    // Guarded by lock
+    private List<Pending<?>> queued = new ArrayList<>();
+    private boolean drainScheduled;
+    // Writer thread only
+    private long commitCount;
+
+    private DatabaseWriter(AppDatabase db) {
+        this.db = db;
+    }
+
+    public static DatabaseWriter getInstance(Context context) {
+        DatabaseWriter result = instance;
+        if (result == null) {
+            synchronized (DatabaseWriter.class) {
+                result = instance;
+                if (result == null) {
+                    result = new DatabaseWriter(AppDatabase.getInstance(context));
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Any thread
+    public <T> CompletableFuture<T> submit(Command<T> command) {
+        return submit(command, null);
+    }
+
+    public <T> CompletableFuture<T> submit(Command<T> command, AfterCommit<T> afterCommit) {
+        Pending<T> pending = new Pending<>(command, afterCommit);
+        synchronized (lock) {
+            queued.add(pending);
+            if (!drainScheduled) {
+                drainScheduled = true;
+                executors.scheduleWrite(this::drain, Constants.DB_WRITE_COALESCE_MS);
+            }
+        }
+        return pending.future;
+    }
+
+    // Batches committed so far. Read from an AfterCommit, it identifies the batch that
+    // was just committed; only meaningful on the writer thread.
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    private void drain() {
+        List<Pending<?>> batch;
+        synchronized (lock) {
+            batch = queued;
+            queued = new ArrayList<>();
+            drainScheduled = false;
+        }
+
+        while (!batch.isEmpty()) {
+            Pending<?> failed = commit(batch);
+            if (failed == null) {
+                for (Pending<?> pending : batch) {
+                    pending.complete();
+                }
+                return;
+            }
+            batch.remove(failed);
+        }
+    }
+
+    // Runs the batch in one transaction. Returns the command that threw, whose future
+    // has been failed and whose batch rolled back, or null when the batch is done:
+    // committed, or emptied because the commit itself failed.
+    private Pending<?> commit(List<Pending<?>> batch) {
+        Pending<?>[] running = new Pending<?>[1];
+        try {
+            db.runInTransaction(() -> {
+                for (Pending<?> pending : batch) {
+                    running[0] = pending;
+                    pending.run(db);
+                }
+                running[0] = null;
+            });
+            commitCount++;
+            return null;
+        } catch (RuntimeException e) {
+            Pending<?> failed = running[0];
+            if (failed == null) {
+                // The commit itself failed; nothing in the batch was written
+                Log.e(TAG, "Commit of " + batch.size() + " writes failed", e);
+                for (Pending<?> pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+                batch.clear();
+                return null;
+            }
+            Log.w(TAG, "Write failed; retrying the rest of its batch", e);
+            failed.future.completeExceptionally(e);
+            return failed;
+        }
+    }
+}
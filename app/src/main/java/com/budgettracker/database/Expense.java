@@ -2,8 +2,10 @@ package com.budgettracker.database;
 
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
+import com.budgettracker.utils.Money;
 import java.util.Date;
 
 @Entity(tableName = "expenses",
@@ -14,6 +16,15 @@ import java.util.Date;
             @ForeignKey(entity = Category.class,
                     parentColumns = "categoryId",
                     childColumns = "categoryId")
+        },
+        indices = {
+            // Per-user, per-category list ordered by date
+            @Index({"userId", "categoryId", "date"}),
+            // Per-user list ordered by date, and covers SUM(amount) / GROUP BY
+            // categoryId over a date range
+            @Index({"userId", "date", "categoryId", "amount"}),
+            // Foreign key lookups when a category is deleted
+            @Index("categoryId")
         })
 public class Expense {
     @PrimaryKey(autoGenerate = true)
@@ -31,13 +42,14 @@ public class Expense {
     @NonNull
     private String description;
     
-    private double amount;
+    @NonNull
+    private Money amount;
     
     private String photoUri;
 
     // Constructor
     public Expense(int userId, int categoryId, @NonNull Date date, @NonNull String time,
-                  @NonNull String description, double amount, String photoUri) {
+                  @NonNull String description, @NonNull Money amount, String photoUri) {
         this.userId = userId;
         this.categoryId = categoryId;
         this.date = date;
@@ -99,11 +111,12 @@ public class Expense {
         this.description = description;
     }
 
-    public double getAmount() {
+    @NonNull
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(@NonNull Money amount) {
         this.amount = amount;
     }
 
@@ -13,6 +13,10 @@ public interface ExpenseDao {
     @Insert
     long insertExpense(Expense expense);
 
+    // One transaction and one compiled statement for the whole list
+    @Insert
+    void insertAll(List<Expense> expenses);
+
     @Update
     void updateExpense(Expense expense);
 
@@ -28,12 +32,61 @@ public interface ExpenseDao {
     @Query("SELECT * FROM expenses WHERE userId = :userId AND categoryId = :categoryId ORDER BY date DESC")
     List<Expense> getExpensesByCategory(int userId, int categoryId);
 
-    @Query("SELECT SUM(amount) FROM expenses WHERE userId = :userId AND date BETWEEN :startDate AND :endDate")
-    double getTotalExpensesByDateRange(int userId, Date startDate, Date endDate);
+    // Sum in minor units
+    @Query("SELECT IFNULL(SUM(amount), 0) FROM expenses WHERE userId = :userId AND date BETWEEN :startDate AND :endDate")
+    long getTotalExpensesByDateRange(int userId, Date startDate, Date endDate);
 
     @Query("SELECT categoryId, SUM(amount) as total FROM expenses WHERE userId = :userId AND date BETWEEN :startDate AND :endDate GROUP BY categoryId")
     List<CategoryExpenseSum> getExpenseSumByCategory(int userId, Date startDate, Date endDate);
 
+    // Keyset pages for ExpensePagingSource, newest first by (date, expenseId).
+    // The redundant "date <= :date" bound lets SQLite range-scan the
+    // (userId, date, ...) index; rows sharing a date are then ordered by expenseId
+    // in a temp b-tree one date at a time, so LIMIT still stops early.
+    @Query("SELECT * FROM expenses WHERE userId = :userId " +
+           "ORDER BY date DESC, expenseId DESC LIMIT :limit")
+    List<Expense> getLatestExpenses(int userId, int limit);
+
+    @Query("SELECT * FROM expenses WHERE userId = :userId AND date <= :date " +
+           "AND (date < :date OR expenseId <= :expenseId) " +
+           "ORDER BY date DESC, expenseId DESC LIMIT :limit")
+    List<Expense> getExpensesStartingAt(int userId, Date date, int expenseId, int limit);
+
+    @Query("SELECT * FROM expenses WHERE userId = :userId AND date <= :date " +
+           "AND (date < :date OR expenseId < :expenseId) " +
+           "ORDER BY date DESC, expenseId DESC LIMIT :limit")
+    List<Expense> getExpensesOlderThan(int userId, Date date, int expenseId, int limit);
+
+    // Ascending, so callers reverse the result
+    @Query("SELECT * FROM expenses WHERE userId = :userId AND date >= :date " +
+           "AND (date > :date OR expenseId > :expenseId) " +
+           "ORDER BY date ASC, expenseId ASC LIMIT :limit")
+    List<Expense> getExpensesNewerThan(int userId, Date date, int expenseId, int limit);
+
+    // Full-text search over descriptions; match comes from FtsQuery. Descriptions
+    // that start with the leading term rank first, then newest first. CROSS JOIN pins
+    // the FTS table as the outer loop: left to itself SQLite may walk the
+    // (userId, date, ...) index and run MATCH per row, which is orders of magnitude
+    // slower. Cost then follows the number of hits, not the table size.
+    //
+    // The ranking is a simplification, not FTS relevance. FTS4 has no built-in rank
+    // function, and the framework SQLite cannot register a matchinfo() scorer.
+    // Descriptions are a few words long, so term frequency would rarely change the
+    // order. Pages use LIMIT/OFFSET rather than keyset paging: every page sorts the
+    // whole hit set in a temp b-tree anyway, so a skipped row costs no extra lookup.
+    @Query("SELECT e.* FROM expenses_fts CROSS JOIN expenses e ON e.expenseId = expenses_fts.docid " +
+           "WHERE expenses_fts MATCH :match AND e.userId = :userId " +
+           "ORDER BY e.description LIKE :leadingTerm || '%' DESC, e.date DESC, e.expenseId DESC " +
+           "LIMIT :limit OFFSET :offset")
+    List<Expense> searchExpenses(int userId, String match, String leadingTerm, int limit, int offset);
+
+    default List<Expense> searchExpenses(int userId, FtsQuery query, int limit, int offset) {
+        return searchExpenses(userId, query.getMatch(), query.getLeadingTerm(), limit, offset);
+    }
+
+    @Query("SELECT COUNT(*) FROM expenses WHERE userId = :userId")
+    int getExpenseCount(int userId);
+
     @Query("SELECT * FROM expenses WHERE expenseId = :expenseId LIMIT 1")
     Expense getExpenseById(int expenseId);
 
@@ -43,6 +96,6 @@ public interface ExpenseDao {
     // Static class for category-wise expense sum
     static class CategoryExpenseSum {
         public int categoryId;
-        public double total;
+        public long total; // minor units
     }
 }
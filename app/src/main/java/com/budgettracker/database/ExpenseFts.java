@@ -0,0 +1,30 @@
+package com.budgettracker.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+// Full-text index over expense descriptions. External content: the text lives only
+// in expenses, and Room's sync triggers keep the index in step (docid = expenseId).
+@Fts4(contentEntity = Expense.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "expenses_fts")
+public class ExpenseFts {
+    @NonNull
+    private String description;
+
+    // Constructor
+    public ExpenseFts(@NonNull String description) {
+        this.description = description;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(@NonNull String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,118 @@
+package com.budgettracker.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import kotlin.Unit;
+
+// Pages a user's expenses newest first using keyset pagination on (date, expenseId),
+// so every page is an index range scan no matter how deep the user has scrolled.
+public class ExpensePagingSource extends
+        ListenableFuturePagingSource<ExpensePagingSource.Key, Expense> {
+
+    private final AppDatabase db;
+    private final int userId;
+    private final InvalidationTracker.Observer observer;
+
+    public ExpensePagingSource(AppDatabase db, int userId) {
+        this.db = db;
+        this.userId = userId;
+
+        // Any write to expenses makes this generation stale
+        observer = new InvalidationTracker.Observer("expenses") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        db.getInvalidationTracker().addObserver(observer);
+        registerInvalidatedCallback(() -> {
+            db.getInvalidationTracker().removeObserver(observer);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Key, Expense>> loadFuture(@NonNull LoadParams<Key> params) {
+        return Futures.submit(() -> load(params), db.getQueryExecutor());
+    }
+
+    private LoadResult<Key, Expense> load(LoadParams<Key> params) {
+        try {
+            ExpenseDao dao = db.expenseDao();
+            Key key = params.getKey();
+            int limit = params.getLoadSize();
+            List<Expense> expenses;
+
+            if (params instanceof LoadParams.Prepend) {
+                expenses = dao.getExpensesNewerThan(userId, key.date, key.expenseId, limit);
+                Collections.reverse(expenses);
+                Key prevKey = expenses.size() < limit ? null : Key.of(expenses.get(0));
+                return new LoadResult.Page<>(expenses, prevKey, key);
+            }
+
+            Key prevKey;
+            if (params instanceof LoadParams.Append) {
+                expenses = dao.getExpensesOlderThan(userId, key.date, key.expenseId, limit);
+                prevKey = key;
+            } else if (key == null) {
+                expenses = dao.getLatestExpenses(userId, limit);
+                prevKey = null;
+            } else {
+                expenses = dao.getExpensesStartingAt(userId, key.date, key.expenseId, limit);
+                if (expenses.isEmpty()) {
+                    // The anchor and everything older are gone; newer rows may remain,
+                    // and an empty page with no prevKey would never prepend them
+                    expenses = dao.getLatestExpenses(userId, limit);
+                    prevKey = null;
+                } else {
+                    prevKey = Key.of(expenses.get(0));
+                }
+            }
+
+            Key nextKey = expenses.size() < limit ? null : Key.of(expenses.get(expenses.size() - 1));
+            return new LoadResult.Page<>(expenses, prevKey, nextKey);
+        } catch (RuntimeException e) {
+            return new LoadResult.Error<>(e);
+        }
+    }
+
+    // Refresh from the item the user was looking at; rows above it load by prepending
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, Expense> state) {
+        Integer anchorPosition = state.getAnchorPosition();
+        if (anchorPosition == null) {
+            return null;
+        }
+        Expense anchor = state.closestItemToPosition(anchorPosition);
+        return anchor == null ? null : Key.of(anchor);
+    }
+
+    // Position of a row in the (date DESC, expenseId DESC) ordering
+    public static final class Key {
+        final Date date;
+        final int expenseId;
+
+        private Key(Date date, int expenseId) {
+            this.date = date;
+            this.expenseId = expenseId;
+        }
+
+        static Key of(Expense expense) {
+            return new Key(expense.getDate(), expense.getExpenseId());
+        }
+    }
+}
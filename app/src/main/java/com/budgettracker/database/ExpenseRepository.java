@@ -0,0 +1,129 @@
+package com.budgettracker.database;
+
+import android.content.Context;
+
+import com.budgettracker.utils.BudgetAlertEngine;
+import com.budgettracker.utils.DateUtils;
+import com.budgettracker.utils.ImageUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Expense writes go through here: each is a DatabaseWriter command, and once it
+// commits BudgetAlertEngine gets the change in spending per month. Update and delete
+// read the stored row inside the same command, by primary key, so the delta is
+// exact even if the caller's object is stale.
+//
+// Writes that can drop a receipt's last reference are followed by a sweep of
+// receipt_refs, queued right behind them so it usually shares their transaction,
+// which deletes the files no expense uses any more.
+public class ExpenseRepository {
+
+    private static volatile ExpenseRepository instance;
+
+    private final AppDatabase db;
+    private final DatabaseWriter writer;
+    private final BudgetAlertEngine alerts;
+
+    private ExpenseRepository(Context context) {
+        this.db = AppDatabase.getInstance(context);
+        this.writer = DatabaseWriter.getInstance(context);
+        this.alerts = BudgetAlertEngine.getInstance(context);
+    }
+
+    public static ExpenseRepository getInstance(Context context) {
+        ExpenseRepository result = instance;
+        if (result == null) {
+            synchronized (ExpenseRepository.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ExpenseRepository(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Completes with the new expenseId
+    public CompletableFuture<Long> insert(Expense expense) {
+        int userId = expense.getUserId();
+        int epochMonth = DateUtils.toEpochMonth(expense.getDate());
+        long amount = expense.getAmount().getMinorUnits();
+        return writer.submit(db -> db.expenseDao().insertExpense(expense),
+            expenseId -> alerts.onSpendingChanged(userId, epochMonth, amount));
+    }
+
+    public CompletableFuture<Void> update(Expense expense) {
+        int userId = expense.getUserId();
+        int epochMonth = DateUtils.toEpochMonth(expense.getDate());
+        long amount = expense.getAmount().getMinorUnits();
+        CompletableFuture<Void> result = writer.submit(db -> {
+            Expense old = db.expenseDao().getExpenseById(expense.getExpenseId());
+            db.expenseDao().updateExpense(expense);
+            return old;
+        }, old -> {
+            if (old == null) {
+                return;
+            }
+            int oldMonth = DateUtils.toEpochMonth(old.getDate());
+            long oldAmount = old.getAmount().getMinorUnits();
+            // One event when the month is unchanged, so an edit isn't seen as a dip
+            if (old.getUserId() == userId && oldMonth == epochMonth) {
+                alerts.onSpendingChanged(userId, epochMonth, amount - oldAmount);
+            } else {
+                alerts.onSpendingChanged(old.getUserId(), oldMonth, -oldAmount);
+                alerts.onSpendingChanged(userId, epochMonth, amount);
+            }
+        }).thenApply(old -> null);
+        releaseReceipts();
+        return result;
+    }
+
+    public CompletableFuture<Void> delete(Expense expense) {
+        CompletableFuture<Void> result = writer.submit(db -> {
+            Expense old = db.expenseDao().getExpenseById(expense.getExpenseId());
+            if (old != null) {
+                db.expenseDao().deleteExpense(old);
+            }
+            return old;
+        }, old -> {
+            if (old != null) {
+                alerts.onSpendingChanged(old.getUserId(), DateUtils.toEpochMonth(old.getDate()),
+                    -old.getAmount().getMinorUnits());
+            }
+        }).thenApply(old -> null);
+        releaseReceipts();
+        return result;
+    }
+
+    public CompletableFuture<Void> deleteAllByUser(int userId) {
+        CompletableFuture<Void> result = writer.submit(db -> {
+            db.expenseDao().deleteAllExpensesByUser(userId);
+            return (Void) null;
+        }, done -> alerts.invalidate(userId));
+        releaseReceipts();
+        return result;
+    }
+
+    // Drops the rows of unreferenced receipts and, once that commits, their files.
+    // A later command in the same batch may have attached one of those receipts
+    // again, so each count is re-read first; on the writer thread nothing can change
+    // it between that read and the delete.
+    private void releaseReceipts() {
+        writer.submit(db -> {
+            List<String> paths = db.receiptDao().getUnreferencedPaths();
+            if (!paths.isEmpty()) {
+                db.receiptDao().deleteUnreferenced();
+            }
+            return paths;
+        }, paths -> {
+            ReceiptDao dao = db.receiptDao();
+            for (String path : paths) {
+                if (dao.getRefCount(path) == 0) {
+                    ImageUtils.deleteImage(path);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.budgettracker.database;
+
+import java.util.Locale;
+
+// Turns free text typed by the user into an FTS4 MATCH expression: every word
+// becomes a prefix term and all of them must match ("Gro sto" -> "gro* sto*").
+// Punctuation, which carries meaning in the query syntax, is dropped, and words are
+// lowercased so AND/OR/NOT/NEAR are never read as operators; no input can produce
+// a malformed query. The unicode61 tokenizer folds case anyway.
+public class FtsQuery {
+    private final String match;
+    private final String leadingTerm;
+
+    private FtsQuery(String match, String leadingTerm) {
+        this.match = match;
+        this.leadingTerm = leadingTerm;
+    }
+
+    // Returns null when the text has nothing searchable in it
+    public static FtsQuery parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        StringBuilder term = new StringBuilder();
+        String leadingTerm = null;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+                continue;
+            }
+            if (term.length() == 0) {
+                continue;
+            }
+            String word = term.toString().toLowerCase(Locale.ROOT);
+            term.setLength(0);
+            if (leadingTerm == null) {
+                leadingTerm = word;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(word).append('*');
+        }
+        return match.length() > 0 ? new FtsQuery(match.toString(), leadingTerm) : null;
+    }
+
+    // The MATCH argument
+    public String getMatch() {
+        return match;
+    }
+
+    // First word, used to rank text that starts with it first
+    public String getLeadingTerm() {
+        return leadingTerm;
+    }
+}
@@ -0,0 +1,282 @@
+package com.budgettracker.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+// Schema migrations, applied in order by AppDatabase
+final class Migrations {
+
+    // yyyy-MM rollup key used by versions 3 and 4, kept so those migrations stay
+    // byte-for-byte what they were when they shipped
+    private static final String LEGACY_MONTH_OF_DATE =
+        "strftime('%Y-%m', date / 1000, 'unixepoch', 'localtime')";
+
+    // The rollup triggers as versions 3 and 4 shipped them, writing the monthYear
+    // key. RollupTriggers always holds the current ones, which those schemas can't
+    // run; these are fixed for the same reason as LEGACY_MONTH_OF_DATE.
+    private static final String LEGACY_NEW_MONTH =
+        "strftime('%Y-%m', NEW.date / 1000, 'unixepoch', 'localtime')";
+    private static final String LEGACY_OLD_MONTH =
+        "strftime('%Y-%m', OLD.date / 1000, 'unixepoch', 'localtime')";
+    private static final String LEGACY_ROLLUP_ADD_NEW =
+        "INSERT OR IGNORE INTO monthly_category_totals " +
+        "(userId, monthYear, categoryId, total, expenseCount) VALUES (" +
+        "NEW.userId, " + LEGACY_NEW_MONTH + ", NEW.categoryId, 0, 0); " +
+        "UPDATE monthly_category_totals SET total = total + NEW.amount, " +
+        "expenseCount = expenseCount + 1 WHERE userId = NEW.userId AND monthYear = " +
+        LEGACY_NEW_MONTH + " AND categoryId = NEW.categoryId; ";
+    private static final String LEGACY_ROLLUP_SUBTRACT_OLD =
+        "UPDATE monthly_category_totals SET total = total - OLD.amount, " +
+        "expenseCount = expenseCount - 1 WHERE userId = OLD.userId AND monthYear = " +
+        LEGACY_OLD_MONTH + " AND categoryId = OLD.categoryId; " +
+        "DELETE FROM monthly_category_totals WHERE userId = OLD.userId AND monthYear = " +
+        LEGACY_OLD_MONTH + " AND categoryId = OLD.categoryId AND expenseCount <= 0; ";
+    private static final String[] LEGACY_ROLLUP_TRIGGERS = {
+        "CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_insert " +
+            "AFTER INSERT ON expenses BEGIN " + LEGACY_ROLLUP_ADD_NEW + "END",
+        "CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_delete " +
+            "AFTER DELETE ON expenses BEGIN " + LEGACY_ROLLUP_SUBTRACT_OLD + "END",
+        "CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_update " +
+            "AFTER UPDATE OF userId, categoryId, date, amount ON expenses BEGIN " +
+            LEGACY_ROLLUP_SUBTRACT_OLD + LEGACY_ROLLUP_ADD_NEW + "END"
+    };
+
+    // Version 2: indexes for the hot expense queries
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            createExpenseIndices(db);
+        }
+    };
+
+    // Version 3: monthly_category_totals rollup, seeded from existing expenses
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `monthly_category_totals` (" +
+                    "`userId` INTEGER NOT NULL, `monthYear` TEXT NOT NULL, " +
+                    "`categoryId` INTEGER NOT NULL, `total` REAL NOT NULL, " +
+                    "`expenseCount` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`userId`, `monthYear`, `categoryId`))");
+            db.execSQL("INSERT INTO monthly_category_totals " +
+                    "(userId, monthYear, categoryId, total, expenseCount) " +
+                    "SELECT userId, " + LEGACY_MONTH_OF_DATE + ", categoryId, " +
+                    "SUM(amount), COUNT(*) FROM expenses GROUP BY 1, 2, 3");
+            createLegacyRollupTriggers(db);
+        }
+    };
+
+    // Version 4: REAL amounts become INTEGER minor units (hundredths). SQLite can't
+    // change a column type in place, so expenses and budgets are rebuilt; dropping
+    // expenses also drops its indexes and triggers, which are recreated afterwards.
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `expenses_new` (" +
+                    "`expenseId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`userId` INTEGER NOT NULL, `categoryId` INTEGER NOT NULL, " +
+                    "`date` INTEGER NOT NULL, `time` TEXT NOT NULL, " +
+                    "`description` TEXT NOT NULL, `amount` INTEGER NOT NULL, `photoUri` TEXT, " +
+                    "FOREIGN KEY(`userId`) REFERENCES `users`(`userId`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION , " +
+                    "FOREIGN KEY(`categoryId`) REFERENCES `categories`(`categoryId`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION )");
+            db.execSQL("INSERT INTO expenses_new " +
+                    "(expenseId, userId, categoryId, date, time, description, amount, photoUri) " +
+                    "SELECT expenseId, userId, categoryId, date, time, description, " +
+                    "CAST(ROUND(amount * 100) AS INTEGER), photoUri FROM expenses");
+            db.execSQL("DROP TABLE expenses");
+            db.execSQL("ALTER TABLE expenses_new RENAME TO expenses");
+            createExpenseIndices(db);
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `budgets_new` (" +
+                    "`budgetId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`userId` INTEGER NOT NULL, `monthYear` TEXT NOT NULL, " +
+                    "`minSpending` INTEGER NOT NULL, `maxSpending` INTEGER NOT NULL, " +
+                    "FOREIGN KEY(`userId`) REFERENCES `users`(`userId`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION )");
+            db.execSQL("INSERT INTO budgets_new " +
+                    "(budgetId, userId, monthYear, minSpending, maxSpending) " +
+                    "SELECT budgetId, userId, monthYear, CAST(ROUND(minSpending * 100) AS INTEGER), " +
+                    "CAST(ROUND(maxSpending * 100) AS INTEGER) FROM budgets");
+            db.execSQL("DROP TABLE budgets");
+            db.execSQL("ALTER TABLE budgets_new RENAME TO budgets");
+
+            // The rollup is derived data, so recreate it from the converted amounts
+            db.execSQL("DROP TABLE IF EXISTS monthly_category_totals");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `monthly_category_totals` (" +
+                    "`userId` INTEGER NOT NULL, `monthYear` TEXT NOT NULL, " +
+                    "`categoryId` INTEGER NOT NULL, `total` INTEGER NOT NULL, " +
+                    "`expenseCount` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`userId`, `monthYear`, `categoryId`))");
+            db.execSQL("INSERT INTO monthly_category_totals " +
+                    "(userId, monthYear, categoryId, total, expenseCount) " +
+                    "SELECT userId, " + LEGACY_MONTH_OF_DATE + ", categoryId, " +
+                    "SUM(amount), COUNT(*) FROM expenses GROUP BY 1, 2, 3");
+            createLegacyRollupTriggers(db);
+        }
+    };
+
+    // Version 5: budgets and the rollup are keyed by an integer epoch month instead
+    // of a yyyy-MM string, and a user can hold only one budget per month. Duplicate
+    // budgets left over from the old check-then-insert keep the most recent row.
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // The triggers write the old key. They go first: SQLite re-checks every
+            // trigger when a table is renamed, and these won't match the new rollup.
+            RollupTriggers.drop(db);
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `budgets_new` (" +
+                    "`budgetId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`userId` INTEGER NOT NULL, `epochMonth` INTEGER NOT NULL, " +
+                    "`minSpending` INTEGER NOT NULL, `maxSpending` INTEGER NOT NULL, " +
+                    "FOREIGN KEY(`userId`) REFERENCES `users`(`userId`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION )");
+            db.execSQL("INSERT INTO budgets_new " +
+                    "(budgetId, userId, epochMonth, minSpending, maxSpending) " +
+                    "SELECT budgetId, userId, " +
+                    "(CAST(SUBSTR(monthYear, 1, 4) AS INTEGER) - 1970) * 12 " +
+                    "+ CAST(SUBSTR(monthYear, 6, 2) AS INTEGER) - 1, " +
+                    "minSpending, maxSpending FROM budgets " +
+                    "WHERE budgetId IN (SELECT MAX(budgetId) FROM budgets " +
+                    "GROUP BY userId, monthYear)");
+            db.execSQL("DROP TABLE budgets");
+            db.execSQL("ALTER TABLE budgets_new RENAME TO budgets");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_budgets_userId_epochMonth` " +
+                    "ON `budgets` (`userId`, `epochMonth`)");
+
+            db.execSQL("DROP TABLE IF EXISTS monthly_category_totals");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `monthly_category_totals` (" +
+                    "`userId` INTEGER NOT NULL, `epochMonth` INTEGER NOT NULL, " +
+                    "`categoryId` INTEGER NOT NULL, `total` INTEGER NOT NULL, " +
+                    "`expenseCount` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`userId`, `epochMonth`, `categoryId`))");
+            db.execSQL("INSERT INTO monthly_category_totals " +
+                    "(userId, epochMonth, categoryId, total, expenseCount) " +
+                    "SELECT userId, " + MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE + ", categoryId, " +
+                    "SUM(amount), COUNT(*) FROM expenses GROUP BY 1, 2, 3");
+            RollupTriggers.create(db);
+        }
+    };
+
+    // Version 6: FTS4 indexes over expense descriptions and category names. Room
+    // creates the tables and their sync triggers on a fresh install; here they are
+    // created with the same statements and filled from the existing rows.
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            createFtsTable(db, "expenses_fts", "expenses", "description");
+            createFtsTable(db, "categories_fts", "categories", "categoryName");
+        }
+    };
+
+    // Category names become unique. Duplicates keep the lowest categoryId, with their
+    // expenses moved onto it first (the rollup trigger re-buckets them).
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            String kept = "SELECT MIN(categoryId) FROM categories GROUP BY categoryName";
+            db.execSQL("UPDATE expenses SET categoryId = (" +
+                    "SELECT MIN(c2.categoryId) FROM categories c1 " +
+                    "JOIN categories c2 ON c2.categoryName = c1.categoryName " +
+                    "WHERE c1.categoryId = expenses.categoryId) " +
+                    "WHERE categoryId NOT IN (" + kept + ")");
+            db.execSQL("DELETE FROM categories WHERE categoryId NOT IN (" + kept + ")");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_categories_categoryName` " +
+                    "ON `categories` (`categoryName`)");
+        }
+    };
+
+    // Emails become unique, so login is one index lookup. Registration's old
+    // check-then-insert could race into duplicates, and login matched email and
+    // password together, so each duplicate account was still reachable. Rather than
+    // delete one, later duplicates get their userId appended to the email; their data
+    // stays intact.
+    // Passwords are not touched here: hashing needs the plain text, so each row is
+    // re-hashed on the user's next successful login.
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE users SET email = email || '#' || userId " +
+                    "WHERE userId NOT IN (SELECT MIN(userId) FROM users GROUP BY email)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_users_email` " +
+                    "ON `users` (`email`)");
+        }
+    };
+
+    // Version 9: reference counts for receipt files, seeded from existing expenses.
+    // Older receipts keep their EXPENSE_ names; they are counted the same way.
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `receipt_refs` (" +
+                    "`path` TEXT NOT NULL, `refCount` INTEGER NOT NULL, PRIMARY KEY(`path`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_receipt_refs_refCount` " +
+                    "ON `receipt_refs` (`refCount`)");
+            db.execSQL("INSERT INTO receipt_refs (path, refCount) " +
+                    "SELECT photoUri, COUNT(*) FROM expenses " +
+                    "WHERE photoUri IS NOT NULL GROUP BY photoUri");
+            ReceiptTriggers.create(db);
+        }
+    };
+
+    // Version 10: (userId, date) is a prefix of the covering
+    // (userId, date, categoryId, amount) index, which serves the same queries
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_expenses_userId_date`");
+        }
+    };
+
+    static final Migration[] ALL = {
+        MIGRATION_1_2,
+        MIGRATION_2_3,
+        MIGRATION_3_4,
+        MIGRATION_4_5,
+        MIGRATION_5_6,
+        MIGRATION_6_7,
+        MIGRATION_7_8,
+        MIGRATION_8_9,
+        MIGRATION_9_10
+    };
+
+    // Index names must match the ones Room derives from Expense's @Index list
+    static void createExpenseIndices(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_userId_categoryId_date` " +
+                "ON `expenses` (`userId`, `categoryId`, `date`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_userId_date_categoryId_amount` " +
+                "ON `expenses` (`userId`, `date`, `categoryId`, `amount`)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_expenses_categoryId` " +
+                "ON `expenses` (`categoryId`)");
+    }
+
+    private static void createLegacyRollupTriggers(SupportSQLiteDatabase db) {
+        for (String sql : LEGACY_ROLLUP_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+
+    // External-content FTS4 table plus the four room_fts_content_sync_* triggers,
+    // matching what Room generates for an @Fts4(contentEntity = ...) entity
+    private static void createFtsTable(SupportSQLiteDatabase db, String ftsTable,
+                                       String contentTable, String column) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + ftsTable + "` USING FTS4(" +
+                "`" + column + "` TEXT NOT NULL, tokenize=unicode61, content=`" + contentTable + "`)");
+        String trigger = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + ftsTable + "_";
+        String delete = "BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insert = "BEGIN INSERT INTO `" + ftsTable + "`(`docid`, `" + column + "`) " +
+                "VALUES (NEW.`rowid`, NEW.`" + column + "`); END";
+        db.execSQL(trigger + "BEFORE_UPDATE BEFORE UPDATE ON `" + contentTable + "` " + delete);
+        db.execSQL(trigger + "BEFORE_DELETE BEFORE DELETE ON `" + contentTable + "` " + delete);
+        db.execSQL(trigger + "AFTER_UPDATE AFTER UPDATE ON `" + contentTable + "` " + insert);
+        db.execSQL(trigger + "AFTER_INSERT AFTER INSERT ON `" + contentTable + "` " + insert);
+        db.execSQL("INSERT INTO `" + ftsTable + "`(`" + ftsTable + "`) VALUES('rebuild')");
+    }
+
+    private Migrations() {
+        // Private constructor to prevent instantiation
+    }
+}
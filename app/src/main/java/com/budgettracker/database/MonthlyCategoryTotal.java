@@ -0,0 +1,73 @@
+package com.budgettracker.database;
+
+import androidx.room.Entity;
+
+// Per-user, per-month, per-category expense totals. Maintained by the triggers
+// in RollupTriggers, so it never needs to be written from application code.
+@Entity(tableName = "monthly_category_totals",
+        primaryKeys = {"userId", "epochMonth", "categoryId"})
+public class MonthlyCategoryTotal {
+    // Epoch month of expenses.date in local time, same bucketing as Budget.epochMonth
+    public static final String EPOCH_MONTH_OF_DATE =
+        "((CAST(strftime('%Y', date / 1000, 'unixepoch', 'localtime') AS INTEGER) - 1970) * 12 " +
+        "+ CAST(strftime('%m', date / 1000, 'unixepoch', 'localtime') AS INTEGER) - 1)";
+
+    private int userId;
+
+    private int epochMonth;
+
+    private int categoryId;
+    private long total; // minor units
+    private int expenseCount;
+
+    // Constructor
+    public MonthlyCategoryTotal(int userId, int epochMonth, int categoryId,
+                                long total, int expenseCount) {
+        this.userId = userId;
+        this.epochMonth = epochMonth;
+        this.categoryId = categoryId;
+        this.total = total;
+        this.expenseCount = expenseCount;
+    }
+
+    // Getters and Setters
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getEpochMonth() {
+        return epochMonth;
+    }
+
+    public void setEpochMonth(int epochMonth) {
+        this.epochMonth = epochMonth;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(int categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(int expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+}
@@ -0,0 +1,87 @@
+package com.budgettracker.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import java.util.List;
+
+@Dao
+public interface MonthlyTotalDao {
+    // Sum in minor units
+    @Query("SELECT IFNULL(SUM(total), 0) FROM monthly_category_totals " +
+           "WHERE userId = :userId AND epochMonth = :epochMonth")
+    long getMonthTotal(int userId, int epochMonth);
+
+    // Re-emits only when the rollup (and therefore expenses) changes
+    @Query("SELECT IFNULL(SUM(total), 0) FROM monthly_category_totals " +
+           "WHERE userId = :userId AND epochMonth = :epochMonth")
+    LiveData<Long> observeMonthTotal(int userId, int epochMonth);
+
+    // Sum in minor units
+    @Query("SELECT IFNULL(SUM(total), 0) FROM monthly_category_totals WHERE userId = :userId")
+    long getAllTimeTotal(int userId);
+
+    @Query("SELECT * FROM monthly_category_totals " +
+           "WHERE userId = :userId AND epochMonth = :epochMonth")
+    List<MonthlyCategoryTotal> getCategoryTotalsForMonth(int userId, int epochMonth);
+
+    @Query("SELECT * FROM monthly_category_totals " +
+           "WHERE userId = :userId AND epochMonth = :epochMonth AND categoryId = :categoryId LIMIT 1")
+    MonthlyCategoryTotal getCategoryTotal(int userId, int epochMonth, int categoryId);
+
+    // Rows where the rollup disagrees with the raw expenses, in either direction
+    @Query("SELECT e.userId, e.epochMonth, e.categoryId, " +
+           "e.total AS expectedTotal, IFNULL(r.total, 0) AS actualTotal, " +
+           "e.expenseCount AS expectedCount, IFNULL(r.expenseCount, 0) AS actualCount " +
+           "FROM (SELECT userId, " + MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE + " AS epochMonth, " +
+           "categoryId, SUM(amount) AS total, COUNT(*) AS expenseCount " +
+           "FROM expenses GROUP BY 1, 2, 3) e " +
+           "LEFT JOIN monthly_category_totals r ON r.userId = e.userId " +
+           "AND r.epochMonth = e.epochMonth AND r.categoryId = e.categoryId " +
+           "WHERE r.userId IS NULL OR r.total != e.total " +
+           "OR r.expenseCount != e.expenseCount " +
+           "UNION ALL " +
+           "SELECT r.userId, r.epochMonth, r.categoryId, 0, r.total, 0, r.expenseCount " +
+           "FROM monthly_category_totals r WHERE NOT EXISTS (SELECT 1 FROM expenses x " +
+           "WHERE x.userId = r.userId AND x.categoryId = r.categoryId " +
+           "AND " + MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE + " = r.epochMonth)")
+    List<RollupDrift> findDrift();
+
+    @Query("DELETE FROM monthly_category_totals")
+    void deleteAllTotals();
+
+    @Query("INSERT INTO monthly_category_totals " +
+           "(userId, epochMonth, categoryId, total, expenseCount) " +
+           "SELECT userId, " + MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE + ", categoryId, " +
+           "SUM(amount), COUNT(*) FROM expenses GROUP BY 1, 2, 3")
+    void insertTotalsFromExpenses();
+
+    // Recomputes every rollup row from the raw expenses
+    @Transaction
+    default void rebuild() {
+        deleteAllTotals();
+        insertTotalsFromExpenses();
+    }
+
+    // Reports drift and rebuilds if any was found; returns the drifted rows
+    @Transaction
+    default List<RollupDrift> verifyAndRebuild() {
+        List<RollupDrift> drift = findDrift();
+        if (!drift.isEmpty()) {
+            rebuild();
+        }
+        return drift;
+    }
+
+    // Static class for a rollup row that doesn't match the raw expenses
+    class RollupDrift {
+        public int userId;
+        public int epochMonth;
+        public int categoryId;
+        public long expectedTotal;
+        public long actualTotal;
+        public int expectedCount;
+        public int actualCount;
+    }
+}
@@ -0,0 +1,137 @@
+package com.budgettracker.database;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-statement cost accounting for AppDatabase. Reads are timed from the call to
+// query() until Room's generated code closes the cursor, which covers execution and
+// row mapping; transactions are timed begin to end, which is where writes spend
+// their time. QueryCallback feeds execution counts for every statement, including
+// the inserts and updates that never pass through query().
+//
+// Latencies go into power-of-two millisecond buckets (<1, <2, <4 ... >=1024 ms);
+// anything above the slow threshold is logged as it happens.
+public class QueryTracer {
+    private static final String TAG = "QueryTracer";
+    private static final int BUCKETS = 12;
+    static final String TRANSACTION = "<transaction>";
+
+    public static class StatementStats {
+        public final String sql;
+        final AtomicLong executions = new AtomicLong();
+        final AtomicLong timed = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        public long getExecutions() {
+            return Math.max(executions.get(), timed.get());
+        }
+
+        public long getTotalMillis() {
+            return totalNanos.get() / 1_000_000;
+        }
+
+        public double getMeanMillis() {
+            long count = timed.get();
+            return count == 0 ? 0 : totalNanos.get() / 1e6 / count;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+
+        // Count in bucket i: [2^(i-1), 2^i) ms, with bucket 0 under 1 ms and the last
+        // one open-ended
+        public long getBucket(int i) {
+            return histogram.get(i);
+        }
+    }
+
+    private final ConcurrentHashMap<String, StatementStats> stats = new ConcurrentHashMap<>();
+    private final long slowNanos;
+
+    QueryTracer(long slowQueryMillis) {
+        this.slowNanos = slowQueryMillis * 1_000_000;
+    }
+
+    private StatementStats statsFor(String sql) {
+        StatementStats existing = stats.get(sql);
+        if (existing != null) {
+            return existing;
+        }
+        StatementStats created = new StatementStats(sql);
+        existing = stats.putIfAbsent(sql, created);
+        return existing != null ? existing : created;
+    }
+
+    void countExecution(String sql) {
+        statsFor(sql).executions.incrementAndGet();
+    }
+
+    void record(String sql, long nanos, int rows) {
+        StatementStats s = statsFor(sql);
+        s.timed.incrementAndGet();
+        s.totalNanos.addAndGet(nanos);
+        if (rows > 0) {
+            s.rows.addAndGet(rows);
+        }
+        long max;
+        while (nanos > (max = s.maxNanos.get()) && !s.maxNanos.compareAndSet(max, nanos)) {
+            // Retry until the larger value sticks
+        }
+        s.histogram.incrementAndGet(bucketOf(nanos));
+
+        if (nanos >= slowNanos) {
+            Log.w(TAG, String.format(Locale.ROOT, "Slow %s: %.1f ms, %d rows on %s",
+                TRANSACTION.equals(sql) ? "transaction" : "query", nanos / 1e6, rows,
+                Thread.currentThread().getName()) + (TRANSACTION.equals(sql) ? "" : "\n  " + sql));
+        }
+    }
+
+    private static int bucketOf(long nanos) {
+        long millis = nanos / 1_000_000;
+        int bucket = millis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    // Snapshot, most total time first
+    public List<StatementStats> getStats() {
+        List<StatementStats> result = new ArrayList<>(stats.values());
+        Collections.sort(result, (a, b) -> Long.compare(b.totalNanos.get(), a.totalNanos.get()));
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    public void logReport() {
+        StringBuilder report = new StringBuilder("Query report (total ms, count, mean ms, max ms, rows, histogram <1,<2,<4..ms)");
+        for (StatementStats s : getStats()) {
+            report.append(String.format(Locale.ROOT, "%n%8d %7d %8.2f %8.1f %9d  [",
+                s.getTotalMillis(), s.getExecutions(), s.getMeanMillis(), s.getMaxMillis(), s.getRows()));
+            for (int i = 0; i < BUCKETS; i++) {
+                report.append(i == 0 ? "" : " ").append(s.getBucket(i));
+            }
+            report.append("]  ").append(s.sql);
+        }
+        Log.i(TAG, report.toString());
+    }
+}
@@ -0,0 +1,23 @@
+package com.budgettracker.database;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface ReceiptDao {
+    // Files no expense points at any more
+    @Query("SELECT path FROM receipt_refs WHERE refCount <= 0")
+    List<String> getUnreferencedPaths();
+
+    @Query("DELETE FROM receipt_refs WHERE refCount <= 0")
+    int deleteUnreferenced();
+
+    // The given paths that some expense still points at; at most 999 per call
+    @Query("SELECT path FROM receipt_refs WHERE path IN (:paths) AND refCount > 0")
+    List<String> getReferencedPaths(List<String> paths);
+
+    @Query("SELECT IFNULL((SELECT refCount FROM receipt_refs WHERE path = :path), 0)")
+    int getRefCount(String path);
+}
@@ -0,0 +1,44 @@
+package com.budgettracker.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// How many expenses point at each receipt file. Receipts are stored under a hash of
+// their content (see ImageUtils.processImage), so one file can back many expenses.
+// Maintained by the triggers in ReceiptTriggers; a row left at 0 marks a file that
+// can be deleted, which ExpenseRepository does after the write that released it.
+@Entity(tableName = "receipt_refs",
+        indices = {@Index("refCount")})
+public class ReceiptRef {
+    @PrimaryKey
+    @NonNull
+    private String path;
+
+    private int refCount;
+
+    // Constructor
+    public ReceiptRef(@NonNull String path, int refCount) {
+        this.path = path;
+        this.refCount = refCount;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(@NonNull String path) {
+        this.path = path;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+}
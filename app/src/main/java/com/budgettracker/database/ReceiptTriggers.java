@@ -0,0 +1,43 @@
+package com.budgettracker.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+// Triggers that keep receipt_refs in step with expenses.photoUri on every insert,
+// delete and receipt change, bulk writes included. Counts only go down to 0 here:
+// deleting the row and its file is left to the application.
+final class ReceiptTriggers {
+
+    private static String acquire(String row) {
+        return "INSERT OR IGNORE INTO receipt_refs (path, refCount) VALUES (" +
+                row + ".photoUri, 0); " +
+                "UPDATE receipt_refs SET refCount = refCount + 1 " +
+                "WHERE path = " + row + ".photoUri; ";
+    }
+
+    private static String release(String row) {
+        return "UPDATE receipt_refs SET refCount = refCount - 1 " +
+                "WHERE path = " + row + ".photoUri; ";
+    }
+
+    static void create(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_insert " +
+                "AFTER INSERT ON expenses WHEN NEW.photoUri IS NOT NULL BEGIN " +
+                acquire("NEW") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_delete " +
+                "AFTER DELETE ON expenses WHEN OLD.photoUri IS NOT NULL BEGIN " +
+                release("OLD") + "END");
+        // Two triggers, since a trigger body can't skip a statement for a null side
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_update_release " +
+                "AFTER UPDATE OF photoUri ON expenses " +
+                "WHEN OLD.photoUri IS NOT NULL AND OLD.photoUri IS NOT NEW.photoUri BEGIN " +
+                release("OLD") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_update_acquire " +
+                "AFTER UPDATE OF photoUri ON expenses " +
+                "WHEN NEW.photoUri IS NOT NULL AND OLD.photoUri IS NOT NEW.photoUri BEGIN " +
+                acquire("NEW") + "END");
+    }
+
+    private ReceiptTriggers() {
+        // Private constructor to prevent instantiation
+    }
+}
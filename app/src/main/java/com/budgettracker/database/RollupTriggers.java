@@ -0,0 +1,52 @@
+package com.budgettracker.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+// Triggers that keep monthly_category_totals in step with every write to expenses,
+// including bulk deletes that never go through a DAO entity method.
+final class RollupTriggers {
+
+    // Same bucketing as MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE, applied to a trigger row
+    private static String monthOf(String row) {
+        return MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE.replace("date / 1000", row + ".date / 1000");
+    }
+
+    private static String add(String row) {
+        String key = "userId = " + row + ".userId AND epochMonth = " + monthOf(row) +
+                " AND categoryId = " + row + ".categoryId";
+        return "INSERT OR IGNORE INTO monthly_category_totals " +
+                "(userId, epochMonth, categoryId, total, expenseCount) VALUES (" +
+                row + ".userId, " + monthOf(row) + ", " + row + ".categoryId, 0, 0); " +
+                "UPDATE monthly_category_totals SET total = total + " + row + ".amount, " +
+                "expenseCount = expenseCount + 1 WHERE " + key + "; ";
+    }
+
+    private static String subtract(String row) {
+        String key = "userId = " + row + ".userId AND epochMonth = " + monthOf(row) +
+                " AND categoryId = " + row + ".categoryId";
+        return "UPDATE monthly_category_totals SET total = total - " + row + ".amount, " +
+                "expenseCount = expenseCount - 1 WHERE " + key + "; " +
+                "DELETE FROM monthly_category_totals WHERE " + key +
+                " AND expenseCount <= 0; ";
+    }
+
+    static void create(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_insert " +
+                "AFTER INSERT ON expenses BEGIN " + add("NEW") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_delete " +
+                "AFTER DELETE ON expenses BEGIN " + subtract("OLD") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_update " +
+                "AFTER UPDATE OF userId, categoryId, date, amount ON expenses BEGIN " +
+                subtract("OLD") + add("NEW") + "END");
+    }
+
+    static void drop(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS rollup_expenses_after_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS rollup_expenses_after_delete");
+        db.execSQL("DROP TRIGGER IF EXISTS rollup_expenses_after_update");
+    }
+
+    private RollupTriggers() {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -1,10 +1,11 @@
 package com.budgettracker.database;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
-@Entity(tableName = "users")
+@Entity(tableName = "users", indices = {@Index(value = "email", unique = true)})
 public class User {
     @PrimaryKey(autoGenerate = true)
     private int userId;
@@ -15,6 +16,8 @@ public class User {
     @NonNull
     private String email;
 
+    // PasswordHasher encoding; plain text in rows from before version 8 until the
+    // user's next login
     @NonNull
     private String password;
 
@@ -3,12 +3,14 @@ package com.budgettracker.database;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
 @Dao
 public interface UserDao {
-    @Insert
+    // -1 if the email is taken (emails are unique, so the insert is the check)
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
     long insertUser(User user);
 
     @Update
@@ -20,12 +22,9 @@ public interface UserDao {
     @Query("SELECT * FROM users WHERE email = :email LIMIT 1")
     User getUserByEmail(String email);
 
-    @Query("SELECT * FROM users WHERE email = :email AND password = :password LIMIT 1")
-    User login(String email, String password);
+    @Query("UPDATE users SET password = :password WHERE userId = :userId")
+    void updatePassword(int userId, String password);
 
     @Query("SELECT * FROM users WHERE userId = :userId LIMIT 1")
     User getUserById(int userId);
-
-    @Query("SELECT EXISTS(SELECT 1 FROM users WHERE email = :email)")
-    boolean isEmailTaken(String email);
 }
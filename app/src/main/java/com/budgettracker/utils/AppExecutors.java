@@ -0,0 +1,216 @@
+package com.budgettracker.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide thread pools shared by every screen:
+//  - diskWrite: one thread, so database writes are serialized and never dropped;
+//               DatabaseWriter batches onto it
+//  - diskRead:  a small prioritized pool for queries, cancellable per lifecycle
+//  - io:        image decoding and file work
+//  - diffing:   one thread for list diffs, so they never queue behind file work
+//  - mainThread: posts results back to the UI
+public final class AppExecutors {
+    // Should match the framework's WAL connection pool (four connections by
+    // default), so readers queue here, where priorities apply, not on connections
+    public static final int DB_READER_THREADS = Constants.DB_READER_CONNECTIONS;
+    private static final int IO_THREADS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    // Handle for a queued read
+    public interface Cancellable {
+        void cancel();
+        boolean isCancelled();
+    }
+
+    private static volatile AppExecutors instance;
+
+    private final ScheduledThreadPoolExecutor diskWrite;
+    private final ThreadPoolExecutor diskRead;
+    private final ThreadPoolExecutor io;
+    private final ThreadPoolExecutor diffing;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Executor mainThread = mainHandler::post;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private AppExecutors() {
+        diskWrite = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("db-write"));
+        diskRead = new ThreadPoolExecutor(DB_READER_THREADS, DB_READER_THREADS,
+            KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new PriorityBlockingQueue<>(), new NamedThreadFactory("db-read"));
+        diskRead.allowCoreThreadTimeOut(true);
+        io = new ThreadPoolExecutor(IO_THREADS, IO_THREADS,
+            KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new NamedThreadFactory("io"));
+        io.allowCoreThreadTimeOut(true);
+        diffing = new ThreadPoolExecutor(1, 1,
+            KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new NamedThreadFactory("diff"));
+        diffing.allowCoreThreadTimeOut(true);
+    }
+
+    public static AppExecutors getInstance() {
+        AppExecutors result = instance;
+        if (result == null) {
+            synchronized (AppExecutors.class) {
+                result = instance;
+                if (result == null) {
+                    result = new AppExecutors();
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public Executor diskWrite() {
+        return diskWrite;
+    }
+
+    // Runs task on the writer thread after delayMillis
+    public void scheduleWrite(Runnable task, long delayMillis) {
+        diskWrite.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Reader pool at normal priority, for APIs that take a plain Executor
+    public Executor diskRead() {
+        return command -> diskRead(Priority.NORMAL, command);
+    }
+
+    public Executor io() {
+        return io;
+    }
+
+    // Background executor for AsyncListDiffer, shared by every list adapter
+    public Executor diffing() {
+        return diffing;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    public Cancellable diskRead(Priority priority, Runnable task) {
+        PrioritizedTask prioritized = new PrioritizedTask(priority, sequence.getAndIncrement(), task);
+        diskRead.execute(prioritized);
+        return prioritized;
+    }
+
+    public Cancellable diskRead(LifecycleOwner owner, Runnable task) {
+        return diskRead(owner, Priority.NORMAL, task);
+    }
+
+    // Read that is dropped if the owner is destroyed before it starts. Writes have no
+    // such variant on purpose: they must complete even when the user leaves the screen.
+    // Call from the main thread.
+    public Cancellable diskRead(LifecycleOwner owner, Priority priority, Runnable task) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        PrioritizedTask prioritized = new PrioritizedTask(priority, sequence.getAndIncrement(), task);
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            prioritized.cancelled = true;
+            return prioritized;
+        }
+
+        DefaultLifecycleObserver observer = new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                prioritized.cancel();
+            }
+        };
+        lifecycle.addObserver(observer);
+        prioritized.onDone = () -> mainHandler.post(() -> lifecycle.removeObserver(observer));
+        diskRead.execute(prioritized);
+        return prioritized;
+    }
+
+    // Replacement for runOnUiThread that skips the task once the owner is destroyed
+    public void runOnMain(LifecycleOwner owner, Runnable task) {
+        mainHandler.post(() -> {
+            if (owner.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.CREATED)) {
+                task.run();
+            }
+        });
+    }
+
+    private final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask>, Cancellable {
+        private final Priority priority;
+        private final long order;
+        private final Runnable task;
+        private volatile boolean cancelled;
+        private Runnable onDone;
+
+        PrioritizedTask(Priority priority, long order, Runnable task) {
+            this.priority = priority;
+            this.order = order;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!cancelled) {
+                    task.run();
+                }
+            } finally {
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }
+        }
+
+        // Higher priority first, then first come first served
+        @Override
+        public int compareTo(@NonNull PrioritizedTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (diskRead.remove(this) && onDone != null) {
+                onDone.run();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, prefix + "-" + count.incrementAndGet());
+        }
+    }
+}
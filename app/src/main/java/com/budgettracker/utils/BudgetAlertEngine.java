@@ -0,0 +1,216 @@
+package com.budgettracker.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.core.app.NotificationChannelCompat;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import com.budgettracker.database.AppDatabase;
+import com.budgettracker.database.Budget;
+import com.budgettracker.database.DatabaseWriter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+// Posts a notification when a month's spending crosses BUDGET_WARNING_THRESHOLD or
+// BUDGET_DANGER_THRESHOLD of that month's maximum budget.
+//
+// Each (user, month) keeps a running total and its budget in memory. The first
+// write to a month loads both (the total from the rollup, not from expenses);
+// every later write only adds its delta and compares, O(1). ExpenseRepository
+// feeds it from DatabaseWriter after-commit actions, so events arrive in commit
+// order; every method here must be called on the writer thread. A load sees every
+// write in the batch just committed, so deltas from that batch are not added again.
+//
+// Alerts only fire on the way up. A level is re-armed once spending falls
+// HYSTERESIS_PERCENT below its threshold, so an edit that hovers around 80% doesn't
+// notify again and again. The last level notified per month is persisted, so a
+// restart doesn't repeat alerts either. A user's cached months are dropped when
+// they log out or another user logs in.
+public class BudgetAlertEngine {
+    public static final int LEVEL_NONE = 0;
+    public static final int LEVEL_WARNING = 1;
+    public static final int LEVEL_DANGER = 2;
+
+    private static final int HYSTERESIS_PERCENT = 5;
+    private static final String PREF_NAME = "BudgetAlerts";
+    private static final String NOTIFICATION_TAG = "budget_alert";
+
+    private static final class MonthState {
+        long total;
+        long maxSpending; // 0 when the month has no budget
+        int level;
+        long loadedAtCommit;
+    }
+
+    private static volatile BudgetAlertEngine instance;
+
+    private final Context context;
+    private final AppDatabase db;
+    private final DatabaseWriter writer;
+    private final SharedPreferences alertLevels;
+    private final Map<Long, MonthState> months = new HashMap<>();
+    private boolean channelCreated;
+
+    private BudgetAlertEngine(Context context) {
+        this.context = context.getApplicationContext();
+        this.db = AppDatabase.getInstance(context);
+        this.writer = DatabaseWriter.getInstance(context);
+        this.alertLevels = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        SessionManager.getInstance(context).addListener((previous, current) -> {
+            if (previous.isLoggedIn() && previous.getUserId() != current.getUserId()) {
+                // diskWrite is the writer thread, which owns the cache
+                AppExecutors.getInstance().diskWrite().execute(() -> invalidate(previous.getUserId()));
+            }
+        });
+    }
+
+    public static BudgetAlertEngine getInstance(Context context) {
+        BudgetAlertEngine result = instance;
+        if (result == null) {
+            synchronized (BudgetAlertEngine.class) {
+                result = instance;
+                if (result == null) {
+                    result = new BudgetAlertEngine(context);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Level the spending is at, ignoring hysteresis; also used to color the dashboard
+    public static int levelOf(long total, long maxSpending) {
+        if (maxSpending <= 0) {
+            return LEVEL_NONE;
+        }
+        long percent = percentOf(total, maxSpending);
+        return percent >= Constants.BUDGET_DANGER_THRESHOLD ? LEVEL_DANGER
+            : percent >= Constants.BUDGET_WARNING_THRESHOLD ? LEVEL_WARNING
+            : LEVEL_NONE;
+    }
+
+    // A committed change of delta minor units to the user's spending in epochMonth
+    public void onSpendingChanged(int userId, int epochMonth, long delta) {
+        MonthState state = months.get(key(userId, epochMonth));
+        if (state == null) {
+            // Loaded after the commit, so the total already includes this change
+            state = load(userId, epochMonth);
+        } else if (state.loadedAtCommit < writer.getCommitCount()) {
+            state.total += delta;
+        }
+        evaluate(userId, epochMonth, state);
+    }
+
+    // A committed insert, update or delete of the month's budget
+    public void onBudgetChanged(int userId, int epochMonth) {
+        months.remove(key(userId, epochMonth));
+        evaluate(userId, epochMonth, load(userId, epochMonth));
+    }
+
+    // Forgets the user's cached months, after writes that bypass the deltas (bulk
+    // imports and deletes); they reload on their next change
+    public void invalidate(int userId) {
+        Iterator<Long> keys = months.keySet().iterator();
+        while (keys.hasNext()) {
+            if ((int) (keys.next() >> 32) == userId) {
+                keys.remove();
+            }
+        }
+    }
+
+    private MonthState load(int userId, int epochMonth) {
+        MonthState state = new MonthState();
+        state.total = db.monthlyTotalDao().getMonthTotal(userId, epochMonth);
+        Budget budget = db.budgetDao().getBudgetForMonth(userId, epochMonth);
+        state.maxSpending = budget != null ? budget.getMaxSpending().getMinorUnits() : 0;
+        state.level = alertLevels.getInt(prefKey(userId, epochMonth), LEVEL_NONE);
+        state.loadedAtCommit = writer.getCommitCount();
+        months.put(key(userId, epochMonth), state);
+        return state;
+    }
+
+    private void evaluate(int userId, int epochMonth, MonthState state) {
+        int level = levelWithHysteresis(state);
+        if (level == state.level) {
+            return;
+        }
+        boolean rising = level > state.level;
+        state.level = level;
+        alertLevels.edit().putInt(prefKey(userId, epochMonth), level).apply();
+        if (rising) {
+            notify(userId, epochMonth, state, level);
+        }
+    }
+
+    // Steps down only once spending is clearly below the threshold it crossed
+    private static int levelWithHysteresis(MonthState state) {
+        int level = levelOf(state.total, state.maxSpending);
+        if (level >= state.level) {
+            return level;
+        }
+        long percent = state.maxSpending > 0 ? percentOf(state.total, state.maxSpending) : 0;
+        int current = state.level;
+        while (current > level && percent < thresholdOf(current) - HYSTERESIS_PERCENT) {
+            current--;
+        }
+        return current;
+    }
+
+    private void notify(int userId, int epochMonth, MonthState state, int level) {
+        SharedPreferences settings = context.getSharedPreferences(
+            context.getPackageName() + "_preferences", Context.MODE_PRIVATE);
+        NotificationManagerCompat manager = NotificationManagerCompat.from(context);
+        if (!settings.getBoolean(Constants.PREF_NOTIFICATION_ENABLED,
+                Constants.DEFAULT_NOTIFICATION_ENABLED) || !manager.areNotificationsEnabled()) {
+            return;
+        }
+        if (!channelCreated) {
+            manager.createNotificationChannel(new NotificationChannelCompat.Builder(
+                    Constants.CHANNEL_ID_BUDGET_ALERTS, NotificationManagerCompat.IMPORTANCE_DEFAULT)
+                .setName(Constants.CHANNEL_NAME_BUDGET_ALERTS)
+                .setDescription(Constants.CHANNEL_DESCRIPTION_BUDGET_ALERTS)
+                .build());
+            channelCreated = true;
+        }
+
+        String month = DateUtils.formatMonthYearForDisplay(DateUtils.formatMonthYear(epochMonth));
+        String text = String.format(Locale.getDefault(), Constants.NOTIFICATION_BUDGET_TEXT,
+            percentOf(state.total, state.maxSpending), month);
+        NotificationCompat.Builder notification =
+            new NotificationCompat.Builder(context, Constants.CHANNEL_ID_BUDGET_ALERTS)
+                .setSmallIcon(android.R.drawable.stat_sys_warning)
+                .setContentTitle(level == LEVEL_DANGER
+                    ? Constants.NOTIFICATION_BUDGET_DANGER_TITLE
+                    : Constants.NOTIFICATION_BUDGET_WARNING_TITLE)
+                .setContentText(text)
+                .setAutoCancel(true);
+        try {
+            // One notification per user and month; a danger alert replaces the warning
+            manager.notify(NOTIFICATION_TAG + userId, epochMonth, notification.build());
+        } catch (SecurityException e) {
+            // Permission revoked between the check and the post
+        }
+    }
+
+    private static long percentOf(long total, long maxSpending) {
+        return total * 100 / maxSpending;
+    }
+
+    private static int thresholdOf(int level) {
+        return level == LEVEL_DANGER
+            ? Constants.BUDGET_DANGER_THRESHOLD : Constants.BUDGET_WARNING_THRESHOLD;
+    }
+
+    private static long key(int userId, int epochMonth) {
+        return ((long) userId << 32) | (epochMonth & 0xFFFFFFFFL);
+    }
+
+    private static String prefKey(int userId, int epochMonth) {
+        return userId + "_" + epochMonth;
+    }
+}
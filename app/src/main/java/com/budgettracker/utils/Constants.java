@@ -1,9 +1,22 @@
 package com.budgettracker.utils;
 
 public class Constants {
+    // Platform. minSdk 26 (Android 8.0), without core library desugaring: java.time,
+    // java.nio.file, CompletableFuture, ThreadLocal.withInitial and
+    // PBKDF2WithHmacSHA256 are used directly, with no version checks or fallbacks.
+    public static final int MIN_SDK_VERSION = 26;
+
     // Database related constants
     public static final String DATABASE_NAME = "budget_tracker_db";
-    public static final int DATABASE_VERSION = 1;
+    public static final int DATABASE_VERSION = 10;
+    public static final boolean DB_WRITE_AHEAD_LOGGING = true;
+    public static final int DB_READER_CONNECTIONS = 4;
+    public static final boolean DB_QUERY_TRACING = false; // per-statement latency, see QueryTracer
+    public static final long DB_SLOW_QUERY_MS = 50;
+    public static final long DB_WRITE_COALESCE_MS = 10; // writes arriving this close share a transaction
+
+    // Credentials
+    public static final long PASSWORD_HASH_TARGET_MS = 250; // cost of one hash, calibrated per device
 
     // Intent keys
     public static final String EXTRA_EXPENSE_ID = "expense_id";
@@ -38,6 +51,19 @@ public class Constants {
     public static final String CHANNEL_ID_BUDGET_ALERTS = "budget_alerts";
     public static final String CHANNEL_NAME_BUDGET_ALERTS = "Budget Alerts";
     public static final String CHANNEL_DESCRIPTION_BUDGET_ALERTS = "Notifications for budget-related alerts";
+    public static final String NOTIFICATION_BUDGET_WARNING_TITLE = "Approaching your budget";
+    public static final String NOTIFICATION_BUDGET_DANGER_TITLE = "Budget almost used up";
+    public static final String NOTIFICATION_BUDGET_TEXT = "You've spent %1$d%% of your budget for %2$s";
+
+    // Import
+    public static final int IMPORT_BATCH_SIZE = 1000; // expenses per transaction
+
+    // Search
+    public static final long SEARCH_DEBOUNCE_MS = 300;
+
+    // Export
+    public static final int EXPORT_CHUNK_SIZE = 500; // expenses per keyset page
+    public static final String EXPORT_DIRECTORY = "exports";
 
     // Budget thresholds (in percentage)
     public static final int BUDGET_WARNING_THRESHOLD = 80;
@@ -56,7 +82,15 @@ public class Constants {
     public static final int IMAGE_COMPRESSION_QUALITY = 85;
     public static final String IMAGE_DIRECTORY = "BudgetTracker";
     public static final String IMAGE_PREFIX = "EXPENSE_";
+    public static final String RECEIPT_PREFIX = "RECEIPT_"; // followed by the content hash
     public static final String IMAGE_EXTENSION = ".jpg";
+    public static final int THUMBNAIL_DIMENSION = 400;
+
+    // Receipt garbage collection
+    public static final long RECEIPT_GC_INTERVAL_HOURS = 24;
+    public static final long RECEIPT_GC_GRACE_MS = 24 * 60 * 60 * 1000L; // unreferenced files younger than this are kept
+    public static final long RECEIPT_GC_TIME_BUDGET_MS = 5_000; // per run; the next run resumes
+    public static final int RECEIPT_GC_BATCH_SIZE = 500; // names per receipt_refs lookup, under SQLite's 999 limit
 
     // Error messages
     public static final String ERROR_INVALID_EMAIL = "Please enter a valid email address";
@@ -90,6 +124,9 @@ public class Constants {
     public static final float CHART_LABEL_TEXT_SIZE = 14f;
     public static final int MAX_VISIBLE_VALUE_COUNT = 7;
 
+    // Dashboard related
+    public static final long DASHBOARD_REFRESH_DEBOUNCE_MS = 250;
+
     // RecyclerView related
     public static final int ITEMS_PER_PAGE = 20;
     public static final int LOAD_MORE_THRESHOLD = 5;
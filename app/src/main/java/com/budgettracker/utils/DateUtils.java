@@ -1,60 +1,78 @@
 package com.budgettracker.utils;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.Locale;
 
+// Immutable, thread-safe date helpers. Months are handled as epoch months
+// ((year - 1970) * 12 + month - 1), so month arithmetic and bucketing are plain
+// integer math; DateTimeFormatter instances are shared safely across threads.
 public class DateUtils {
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-    private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm", Locale.getDefault());
-    private static final SimpleDateFormat MONTH_YEAR_FORMAT = new SimpleDateFormat("yyyy-MM", Locale.getDefault());
-    private static final SimpleDateFormat DISPLAY_DATE_FORMAT = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-    private static final SimpleDateFormat DISPLAY_TIME_FORMAT = new SimpleDateFormat("hh:mm a", Locale.getDefault());
-    private static final SimpleDateFormat DISPLAY_MONTH_YEAR_FORMAT = new SimpleDateFormat("MMMM yyyy", Locale.getDefault());
+    // Returned by parseMonthYear for malformed input
+    public static final int INVALID_MONTH = Integer.MIN_VALUE;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd", Locale.ROOT);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm", Locale.ROOT);
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy", Locale.getDefault());
+    private static final DateTimeFormatter DISPLAY_TIME_FORMAT = DateTimeFormatter.ofPattern("hh:mm a", Locale.getDefault());
+    private static final DateTimeFormatter DISPLAY_MONTH_YEAR_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.getDefault());
 
     // Get current date in yyyy-MM-dd format
     public static String getCurrentDate() {
-        return DATE_FORMAT.format(new Date());
+        return LocalDate.now().format(DATE_FORMAT);
     }
 
     // Get current time in HH:mm format
     public static String getCurrentTime() {
-        return TIME_FORMAT.format(new Date());
+        return LocalTime.now().format(TIME_FORMAT);
     }
 
     // Get current month-year in yyyy-MM format
     public static String getCurrentMonthYear() {
-        return MONTH_YEAR_FORMAT.format(new Date());
+        return formatMonthYear(getCurrentEpochMonth());
     }
 
     // Convert Date object to string in yyyy-MM-dd format
     public static String formatDate(Date date) {
-        return DATE_FORMAT.format(date);
+        return toLocalDate(date).format(DATE_FORMAT);
     }
 
     // Convert string in yyyy-MM-dd format to Date object
     public static Date parseDate(String dateStr) {
         try {
-            return DATE_FORMAT.parse(dateStr);
-        } catch (ParseException e) {
+            return startOfDay(LocalDate.parse(dateStr, DATE_FORMAT));
+        } catch (DateTimeException e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    // Start of the given day in local time, or null if the fields don't form a date.
+    // Lets bulk parsers skip DateTimeFormatter and exceptions for every row.
+    public static Date toDate(int year, int month, int dayOfMonth) {
+        if (month < 1 || month > 12 || dayOfMonth < 1
+                || dayOfMonth > YearMonth.of(year, month).lengthOfMonth()) {
+            return null;
+        }
+        return startOfDay(LocalDate.of(year, month, dayOfMonth));
+    }
+
     // Format date for display (e.g., "Jan 01, 2024")
     public static String formatDateForDisplay(Date date) {
-        return DISPLAY_DATE_FORMAT.format(date);
+        return toLocalDate(date).format(DISPLAY_DATE_FORMAT);
     }
 
     // Format time for display (e.g., "02:30 PM")
     public static String formatTimeForDisplay(String time) {
         try {
-            Date timeDate = TIME_FORMAT.parse(time);
-            return DISPLAY_TIME_FORMAT.format(timeDate);
-        } catch (ParseException e) {
+            return LocalTime.parse(time, TIME_FORMAT).format(DISPLAY_TIME_FORMAT);
+        } catch (DateTimeException e) {
             e.printStackTrace();
             return time;
         }
@@ -62,94 +80,128 @@ public class DateUtils {
 
     // Format month-year for display (e.g., "January 2024")
     public static String formatMonthYearForDisplay(String monthYear) {
-        try {
-            Date date = MONTH_YEAR_FORMAT.parse(monthYear);
-            return DISPLAY_MONTH_YEAR_FORMAT.format(date);
-        } catch (ParseException e) {
-            e.printStackTrace();
+        int epochMonth = parseMonthYear(monthYear);
+        if (epochMonth == INVALID_MONTH) {
             return monthYear;
         }
+        return YearMonth.of(yearOf(epochMonth), monthOf(epochMonth)).format(DISPLAY_MONTH_YEAR_FORMAT);
     }
 
     // Get first day of current month
     public static Date getFirstDayOfMonth() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTime();
+        return getFirstDayOfMonth(getCurrentEpochMonth());
     }
 
     // Get last day of current month
     public static Date getLastDayOfMonth() {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
-        return cal.getTime();
+        return getLastDayOfMonth(getCurrentEpochMonth());
     }
 
     // Get first day of given month-year
     public static Date getFirstDayOfMonth(String monthYear) {
-        try {
-            Date date = MONTH_YEAR_FORMAT.parse(monthYear);
-            Calendar cal = Calendar.getInstance();
-            cal.setTime(date);
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            cal.set(Calendar.MILLISECOND, 0);
-            return cal.getTime();
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return null;
-        }
+        int epochMonth = parseMonthYear(monthYear);
+        return epochMonth == INVALID_MONTH ? null : getFirstDayOfMonth(epochMonth);
     }
 
     // Get last day of given month-year
     public static Date getLastDayOfMonth(String monthYear) {
-        try {
-            Date date = MONTH_YEAR_FORMAT.parse(monthYear);
-            Calendar cal = Calendar.getInstance();
-            cal.setTime(date);
-            cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-            cal.set(Calendar.HOUR_OF_DAY, 23);
-            cal.set(Calendar.MINUTE, 59);
-            cal.set(Calendar.SECOND, 59);
-            cal.set(Calendar.MILLISECOND, 999);
-            return cal.getTime();
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return null;
-        }
+        int epochMonth = parseMonthYear(monthYear);
+        return epochMonth == INVALID_MONTH ? null : getLastDayOfMonth(epochMonth);
     }
 
     // Check if two dates are in the same month
     public static boolean isSameMonth(Date date1, Date date2) {
-        Calendar cal1 = Calendar.getInstance();
-        Calendar cal2 = Calendar.getInstance();
-        cal1.setTime(date1);
-        cal2.setTime(date2);
-        return cal1.get(Calendar.YEAR) == cal2.get(Calendar.YEAR) &&
-               cal1.get(Calendar.MONTH) == cal2.get(Calendar.MONTH);
+        return toEpochMonth(date1) == toEpochMonth(date2);
     }
 
     // Get previous month-year in yyyy-MM format
     public static String getPreviousMonthYear() {
-        Calendar cal = Calendar.getInstance();
-        cal.add(Calendar.MONTH, -1);
-        return MONTH_YEAR_FORMAT.format(cal.getTime());
+        return formatMonthYear(getCurrentEpochMonth() - 1);
     }
 
     // Get next month-year in yyyy-MM format
     public static String getNextMonthYear() {
-        Calendar cal = Calendar.getInstance();
-        cal.add(Calendar.MONTH, 1);
-        return MONTH_YEAR_FORMAT.format(cal.getTime());
+        return formatMonthYear(getCurrentEpochMonth() + 1);
+    }
+
+    // Epoch months
+
+    // month is 1-12
+    public static int toEpochMonth(int year, int month) {
+        return (year - 1970) * 12 + (month - 1);
+    }
+
+    public static int toEpochMonth(Date date) {
+        LocalDate local = toLocalDate(date);
+        return toEpochMonth(local.getYear(), local.getMonthValue());
+    }
+
+    public static int getCurrentEpochMonth() {
+        LocalDate today = LocalDate.now();
+        return toEpochMonth(today.getYear(), today.getMonthValue());
+    }
+
+    public static int yearOf(int epochMonth) {
+        return Math.floorDiv(epochMonth, 12) + 1970;
+    }
+
+    // 1-12
+    public static int monthOf(int epochMonth) {
+        return Math.floorMod(epochMonth, 12) + 1;
+    }
+
+    // First instant of the month, local time
+    public static Date getFirstDayOfMonth(int epochMonth) {
+        return startOfDay(LocalDate.of(yearOf(epochMonth), monthOf(epochMonth), 1));
+    }
+
+    // Last millisecond of the month, local time
+    public static Date getLastDayOfMonth(int epochMonth) {
+        return new Date(getFirstDayOfMonth(epochMonth + 1).getTime() - 1);
+    }
+
+    // yyyy-MM with ASCII digits regardless of locale, since it is used as a key
+    public static String formatMonthYear(int epochMonth) {
+        int year = yearOf(epochMonth);
+        int month = monthOf(epochMonth);
+        char[] chars = {
+            (char) ('0' + year / 1000 % 10), (char) ('0' + year / 100 % 10),
+            (char) ('0' + year / 10 % 10), (char) ('0' + year % 10), '-',
+            (char) ('0' + month / 10), (char) ('0' + month % 10)
+        };
+        return new String(chars);
+    }
+
+    // Parse yyyy-MM without allocating; returns INVALID_MONTH if malformed
+    public static int parseMonthYear(String monthYear) {
+        if (monthYear == null || monthYear.length() != 7 || monthYear.charAt(4) != '-') {
+            return INVALID_MONTH;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = monthYear.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID_MONTH;
+            }
+            year = year * 10 + digit;
+        }
+        int tens = monthYear.charAt(5) - '0';
+        int ones = monthYear.charAt(6) - '0';
+        if (tens < 0 || tens > 1 || ones < 0 || ones > 9) {
+            return INVALID_MONTH;
+        }
+        int month = tens * 10 + ones;
+        if (month < 1 || month > 12) {
+            return INVALID_MONTH;
+        }
+        return toEpochMonth(year, month);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static Date startOfDay(LocalDate date) {
+        return new Date(date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
     }
 }
@@ -0,0 +1,90 @@
+package com.budgettracker.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.budgettracker.database.FtsQuery;
+
+import java.util.Collections;
+import java.util.List;
+
+// Search-as-you-type: runs the query once typing pauses for SEARCH_DEBOUNCE_MS, and
+// only ever delivers the results for the latest text. A superseded query that is
+// still waiting for a reader thread is cancelled; one already running finishes but
+// its results are dropped. Everything is tied to the owner's lifecycle.
+// Use from the main thread.
+public class DebouncedSearch<T> {
+
+    public interface Query<T> {
+        // Runs on a database reader thread
+        List<T> search(FtsQuery query);
+    }
+
+    public interface Callback<T> {
+        // Main thread; text is what the results are for
+        void onResults(String text, List<T> results);
+    }
+
+    private final LifecycleOwner owner;
+    private final Query<T> query;
+    private final Callback<T> callback;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable runPending = this::runPending;
+
+    private String pendingText;
+    private AppExecutors.Cancellable inFlight;
+    private int generation;
+
+    public DebouncedSearch(LifecycleOwner owner, Query<T> query, Callback<T> callback) {
+        this.owner = owner;
+        this.query = query;
+        this.callback = callback;
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                handler.removeCallbacks(runPending);
+            }
+        });
+    }
+
+    public void setQuery(String text) {
+        pendingText = text;
+        generation++;
+        handler.removeCallbacks(runPending);
+        cancelInFlight();
+
+        // Nothing searchable: answer at once instead of after the delay
+        if (FtsQuery.parse(text) == null) {
+            callback.onResults(text, Collections.emptyList());
+            return;
+        }
+        handler.postDelayed(runPending, Constants.SEARCH_DEBOUNCE_MS);
+    }
+
+    private void runPending() {
+        String text = pendingText;
+        FtsQuery ftsQuery = FtsQuery.parse(text);
+        int expected = generation;
+        inFlight = executors.diskRead(owner, AppExecutors.Priority.HIGH, () -> {
+            List<T> results = query.search(ftsQuery);
+            executors.runOnMain(owner, () -> {
+                if (expected == generation) {
+                    inFlight = null;
+                    callback.onResults(text, results);
+                }
+            });
+        });
+    }
+
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.budgettracker.utils;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.budgettracker.database.AppDatabase;
+import com.budgettracker.database.Category;
+import com.budgettracker.database.CategoryRepository;
+import com.budgettracker.database.Expense;
+import com.budgettracker.database.ExpenseDao;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Writes a user's expenses to a file in the cache directory and returns a
+// FileProvider URI for sharing. Expenses are walked in keyset pages of
+// EXPORT_CHUNK_SIZE, newest first, and streamed through a buffered writer, so heap
+// use is one page however many expenses there are. CSV output uses the columns
+// ExpenseImporter reads back.
+//
+// With receipts, the result is a zip: each receipt file is copied into it once, when
+// the first row pointing at it is reached, while the rows themselves are spooled to
+// a temp file that becomes the last entry. The database is read only once.
+//
+// Blocking; run it on AppExecutors.io(). cancel() may be called from any thread and
+// takes effect at the next page; the partial file is deleted and export returns null.
+public class ExpenseExporter implements AppExecutors.Cancellable {
+
+    public enum Format {
+        CSV("csv"),
+        JSON_LINES("jsonl");
+
+        final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    public interface ProgressListener {
+        // Called after each page; total is the count when the export started
+        void onProgress(int exported, int total);
+    }
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String RECEIPT_DIRECTORY = "receipts/";
+
+    private final Context context;
+    private final AppDatabase db;
+    private final int userId;
+    private boolean includeReceipts;
+    private ProgressListener progressListener;
+    private volatile boolean cancelled;
+
+    public ExpenseExporter(Context context, int userId) {
+        this.context = context.getApplicationContext();
+        this.db = AppDatabase.getInstance(context);
+        this.userId = userId;
+    }
+
+    public ExpenseExporter setIncludeReceipts(boolean includeReceipts) {
+        this.includeReceipts = includeReceipts;
+        return this;
+    }
+
+    public ExpenseExporter setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    public Uri export(Format format) throws IOException {
+        File dir = new File(context.getCacheDir(), Constants.EXPORT_DIRECTORY);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        String name = "expenses_" + System.currentTimeMillis();
+        File output = new File(dir, name + "." + (includeReceipts ? "zip" : format.extension));
+
+        boolean complete = false;
+        try {
+            if (includeReceipts) {
+                complete = exportZip(format, output, dir, name);
+            } else {
+                try (Writer writer = newWriter(new FileOutputStream(output))) {
+                    complete = writeRows(format, writer, null);
+                }
+            }
+        } finally {
+            if (!complete) {
+                output.delete();
+            }
+        }
+        return complete ? ImageUtils.getUriForFile(context, output) : null;
+    }
+
+    private boolean exportZip(Format format, File output, File dir, String name) throws IOException {
+        File spool = File.createTempFile(name, "." + format.extension, dir);
+        FileOutputStream file = new FileOutputStream(output);
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(file, BUFFER_SIZE));
+        boolean complete = false;
+        try {
+            try (Writer writer = newWriter(new FileOutputStream(spool))) {
+                if (!writeRows(format, writer, zip)) {
+                    return false;
+                }
+            }
+            zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+            zip.putNextEntry(new ZipEntry("expenses." + format.extension));
+            try (InputStream in = new FileInputStream(spool)) {
+                copy(in, zip);
+            }
+            zip.closeEntry();
+            complete = true;
+        } finally {
+            // An unfinished zip may have no entries, which ZipOutputStream refuses to
+            // close; the file is deleted anyway, so just release it
+            if (complete) {
+                zip.close();
+            } else {
+                file.close();
+            }
+            spool.delete();
+        }
+        return true;
+    }
+
+    // Returns false if cancelled
+    private boolean writeRows(Format format, Writer writer, ZipOutputStream receipts) throws IOException {
+        Map<Integer, String> categoryNames = new HashMap<>();
+        for (Category category : CategoryRepository.getInstance(context).get().getCategories()) {
+            categoryNames.put(category.getCategoryId(), category.getCategoryName());
+        }
+        if (format == Format.CSV) {
+            writer.write("date,time,description,amount,category,receipt\n");
+        }
+
+        // Receipts are shared between expenses; each goes into the zip once
+        Set<String> receiptEntries = new HashSet<>();
+        ExpenseDao dao = db.expenseDao();
+        int total = dao.getExpenseCount(userId);
+        int exported = 0;
+        List<Expense> page = dao.getLatestExpenses(userId, Constants.EXPORT_CHUNK_SIZE);
+        while (!page.isEmpty()) {
+            if (isCancelled()) {
+                return false;
+            }
+            for (Expense expense : page) {
+                String receipt = receipts != null
+                    ? addReceipt(expense, receipts, receiptEntries) : expense.getPhotoUri();
+                String category = categoryNames.get(expense.getCategoryId());
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, expense, category, receipt);
+                } else {
+                    writeJsonLine(writer, expense, category, receipt);
+                }
+            }
+            exported += page.size();
+            if (progressListener != null) {
+                progressListener.onProgress(exported, Math.max(exported, total));
+            }
+            if (page.size() < Constants.EXPORT_CHUNK_SIZE) {
+                break;
+            }
+            Expense last = page.get(page.size() - 1);
+            page = dao.getExpensesOlderThan(userId, last.getDate(), last.getExpenseId(),
+                Constants.EXPORT_CHUNK_SIZE);
+        }
+        return !isCancelled();
+    }
+
+    // Returns the receipt's entry name, copying the file into the zip unless an
+    // earlier row already did, or null if the expense has none or the file is gone.
+    // Entries are named after the receipt file, which is unique in its directory.
+    private String addReceipt(Expense expense, ZipOutputStream zip, Set<String> written)
+            throws IOException {
+        String photoPath = expense.getPhotoUri();
+        if (photoPath == null) {
+            return null;
+        }
+        File photo = new File(photoPath);
+        if (!photo.isFile()) {
+            return null;
+        }
+        String entryName = RECEIPT_DIRECTORY + photo.getName();
+        if (!written.add(entryName)) {
+            return entryName;
+        }
+        // JPEGs don't deflate; storing them saves the CPU
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        zip.putNextEntry(new ZipEntry(entryName));
+        try (InputStream in = new FileInputStream(photo)) {
+            copy(in, zip);
+        }
+        zip.closeEntry();
+        return entryName;
+    }
+
+    private static void writeCsvRow(Writer writer, Expense expense, String category,
+                                    String receipt) throws IOException {
+        writer.write(DateUtils.formatDate(expense.getDate()));
+        writer.write(',');
+        writeCsvField(writer, expense.getTime());
+        writer.write(',');
+        writeCsvField(writer, expense.getDescription());
+        writer.write(',');
+        writer.write(expense.getAmount().toString());
+        writer.write(',');
+        writeCsvField(writer, category);
+        writer.write(',');
+        writeCsvField(writer, receipt);
+        writer.write('\n');
+    }
+
+    // RFC 4180: quote only when the value needs it
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static void writeJsonLine(Writer writer, Expense expense, String category,
+                                      String receipt) throws IOException {
+        writer.write("{\"expenseId\":");
+        writer.write(Integer.toString(expense.getExpenseId()));
+        writer.write(",\"date\":");
+        writeJsonString(writer, DateUtils.formatDate(expense.getDate()));
+        writer.write(",\"time\":");
+        writeJsonString(writer, expense.getTime());
+        writer.write(",\"description\":");
+        writeJsonString(writer, expense.getDescription());
+        // A string, so decimal amounts survive parsers that read numbers as doubles
+        writer.write(",\"amount\":");
+        writeJsonString(writer, expense.getAmount().toString());
+        writer.write(",\"category\":");
+        writeJsonString(writer, category);
+        writer.write(",\"receipt\":");
+        writeJsonString(writer, receipt);
+        writer.write("}\n");
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': writer.write("\\\""); break;
+                case '\\': writer.write("\\\\"); break;
+                case '\n': writer.write("\\n"); break;
+                case '\r': writer.write("\\r"); break;
+                case '\t': writer.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static Writer newWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
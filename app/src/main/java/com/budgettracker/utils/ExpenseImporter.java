@@ -0,0 +1,376 @@
+package com.budgettracker.utils;
+
+import android.content.Context;
+
+import com.budgettracker.database.Category;
+import com.budgettracker.database.CategoryRepository;
+import com.budgettracker.database.DatabaseWriter;
+import com.budgettracker.database.Expense;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams expenses from a CSV or OFX file into the database. The input is read one
+// record at a time and written in chunks of batchSize rows, each committed through
+// DatabaseWriter, so memory stays flat and a 100k row statement costs ~100 commits
+// instead of 100k. Blocking; run it on AppExecutors.io(), never on the writer
+// thread it waits for. Ordinary saves interleave between chunks.
+public class ExpenseImporter {
+
+    public interface ProgressListener {
+        // Called after each committed chunk
+        void onProgress(int imported, int skipped);
+    }
+
+    public static class Result {
+        public final int imported;
+        public final int skipped;
+
+        Result(int imported, int skipped) {
+            this.imported = imported;
+            this.skipped = skipped;
+        }
+    }
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final String DEFAULT_TIME = "00:00";
+
+    private final DatabaseWriter writer;
+    private final BudgetAlertEngine alerts;
+    private final CategoryRepository categoryRepository;
+    private final int userId;
+    private final Map<String, Integer> categoryMap = new HashMap<>();
+    private int fallbackCategoryId;
+    private int batchSize = Constants.IMPORT_BATCH_SIZE;
+    private ProgressListener progressListener;
+
+    private final List<Expense> batch = new ArrayList<>();
+    private int imported;
+    private int skipped;
+
+    public ExpenseImporter(Context context, int userId) {
+        this.writer = DatabaseWriter.getInstance(context);
+        this.alerts = BudgetAlertEngine.getInstance(context);
+        this.categoryRepository = CategoryRepository.getInstance(context);
+        this.userId = userId;
+    }
+
+    // Category for rows without a (known) category, and for every OFX row. When not
+    // set, such rows are skipped.
+    public ExpenseImporter setFallbackCategoryId(int categoryId) {
+        this.fallbackCategoryId = categoryId;
+        return this;
+    }
+
+    public ExpenseImporter setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public ExpenseImporter setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    // CSV with a header row naming the columns: date (yyyy-MM-dd) and amount are
+    // required; time (HH:mm), description and category are optional. Amounts are
+    // positive expense values; other rows are skipped.
+    public Result importCsv(InputStream in) throws IOException {
+        start();
+        CsvReader csv = new CsvReader(reader(in));
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return finish();
+        }
+        int dateColumn = -1, timeColumn = -1, descriptionColumn = -1, amountColumn = -1, categoryColumn = -1;
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "date": dateColumn = i; break;
+                case "time": timeColumn = i; break;
+                case "description": descriptionColumn = i; break;
+                case "amount": amountColumn = i; break;
+                case "category": categoryColumn = i; break;
+                default: break;
+            }
+        }
+        if (dateColumn < 0 || amountColumn < 0) {
+            throw new IOException("CSV needs date and amount columns");
+        }
+
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            Date date = parseIsoDate(field(record, dateColumn));
+            Money amount = parseAmount(field(record, amountColumn));
+            String time = field(record, timeColumn);
+            int categoryId = resolveCategory(field(record, categoryColumn));
+            if (date == null || amount == null || amount.getMinorUnits() <= 0 || categoryId == 0) {
+                skipped++;
+                continue;
+            }
+            add(new Expense(userId, categoryId, date, isTime(time) ? time : DEFAULT_TIME,
+                field(record, descriptionColumn).trim(), amount, null));
+        }
+        return finish();
+    }
+
+    // OFX 1.x (SGML) or 2.x (XML) bank statement. Debits (negative TRNAMT) become
+    // expenses in the fallback category; credits are skipped. DTPOSTED is taken as
+    // local time.
+    public Result importOfx(InputStream in) throws IOException {
+        start();
+        Reader reader = reader(in);
+        StringBuilder tag = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+        boolean inTransaction = false;
+        String posted = null, amount = null, name = null, memo = null;
+
+        int c = reader.read();
+        while (c != -1) {
+            if (c != '<') {
+                c = reader.read();
+                continue;
+            }
+            tag.setLength(0);
+            while ((c = reader.read()) != -1 && c != '>') {
+                tag.append((char) c);
+            }
+            text.setLength(0);
+            while ((c = reader.read()) != -1 && c != '<') {
+                text.append((char) c);
+            }
+
+            String element = tag.toString().trim().toUpperCase(Locale.ROOT);
+            if (element.equals("STMTTRN")) {
+                inTransaction = true;
+                posted = amount = name = memo = null;
+            } else if (element.equals("/STMTTRN")) {
+                inTransaction = false;
+                addOfxTransaction(posted, amount, name, memo);
+            } else if (inTransaction) {
+                String value = unescape(text.toString().trim());
+                switch (element) {
+                    case "DTPOSTED": posted = value; break;
+                    case "TRNAMT": amount = value; break;
+                    case "NAME": name = value; break;
+                    case "MEMO": memo = value; break;
+                    default: break;
+                }
+            }
+        }
+        return finish();
+    }
+
+    private void addOfxTransaction(String posted, String trnAmount, String name, String memo) {
+        Date date = parseOfxDate(posted);
+        Money amount = parseAmount(trnAmount);
+        if (date == null || amount == null || amount.getMinorUnits() >= 0 || fallbackCategoryId == 0) {
+            skipped++;
+            return;
+        }
+        String description = name != null ? name : memo != null ? memo : "";
+        add(new Expense(userId, fallbackCategoryId, date, ofxTime(posted), description,
+            Money.ofMinorUnits(-amount.getMinorUnits()), null));
+    }
+
+    private void start() {
+        // Case-insensitive version of the lookup AddExpenseActivity uses
+        categoryMap.clear();
+        for (Category category : categoryRepository.get().getCategories()) {
+            categoryMap.put(category.getCategoryName().trim().toLowerCase(Locale.ROOT),
+                category.getCategoryId());
+        }
+        batch.clear();
+        imported = 0;
+        skipped = 0;
+    }
+
+    private void add(Expense expense) {
+        batch.add(expense);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Waits for the commit, so at most one chunk is in memory
+        List<Expense> chunk = new ArrayList<>(batch);
+        // Bulk rows skip the alert deltas; the user's months reload on their next change
+        writer.submit(db -> {
+            db.expenseDao().insertAll(chunk);
+            return null;
+        }, result -> alerts.invalidate(userId)).join();
+        imported += chunk.size();
+        batch.clear();
+        if (progressListener != null) {
+            progressListener.onProgress(imported, skipped);
+        }
+    }
+
+    private Result finish() {
+        flush();
+        return new Result(imported, skipped);
+    }
+
+    private int resolveCategory(String name) {
+        Integer categoryId = categoryMap.get(name.trim().toLowerCase(Locale.ROOT));
+        return categoryId != null ? categoryId : fallbackCategoryId;
+    }
+
+    private static Reader reader(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        // Skip a UTF-8 byte order mark, which spreadsheet exports often add
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+        return reader;
+    }
+
+    // OFX 2 is XML; OFX 1 writes the same entities in its SGML
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">")
+            .replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static String field(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column) : "";
+    }
+
+    private static Money parseAmount(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Money.parse(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isTime(String value) {
+        return value.length() == 5 && value.charAt(2) == ':'
+            && digits(value, 0, 2) >= 0 && digits(value, 0, 2) < 24
+            && digits(value, 3, 5) >= 0 && digits(value, 3, 5) < 60;
+    }
+
+    // yyyy-MM-dd
+    private static Date parseIsoDate(String value) {
+        value = value.trim();
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        return year < 0 || month < 0 || day < 0 ? null : DateUtils.toDate(year, month, day);
+    }
+
+    // YYYYMMDD[HHMMSS[.XXX][[gmt offset:tz name]]]
+    private static Date parseOfxDate(String value) {
+        if (value == null || value.length() < 8) {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 4, 6);
+        int day = digits(value, 6, 8);
+        return year < 0 || month < 0 || day < 0 ? null : DateUtils.toDate(year, month, day);
+    }
+
+    private static String ofxTime(String posted) {
+        if (posted.length() >= 12 && digits(posted, 8, 12) >= 0) {
+            String time = posted.substring(8, 10) + ":" + posted.substring(10, 12);
+            if (isTime(time)) {
+                return time;
+            }
+        }
+        return DEFAULT_TIME;
+    }
+
+    // Non-negative value of value[start, end), or -1 if any character isn't a digit
+    private static int digits(String value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    // RFC 4180 reader: quoted fields may hold commas, doubled quotes and line
+    // breaks. The record list and field buffer are reused between calls.
+    private static class CsvReader {
+        private final Reader reader;
+        private final List<String> record = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        // Next non-blank record, or null at end of input
+        List<String> readRecord() throws IOException {
+            while (true) {
+                record.clear();
+                field.setLength(0);
+                boolean quoted = false;
+                boolean any = false;
+                int c;
+                while ((c = reader.read()) != -1) {
+                    any = true;
+                    if (quoted) {
+                        if (c == '"') {
+                            reader.mark(1);
+                            if (reader.read() == '"') {
+                                field.append('"');
+                            } else {
+                                reader.reset();
+                                quoted = false;
+                            }
+                        } else {
+                            field.append((char) c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        record.add(field.toString());
+                        field.setLength(0);
+                    } else if (c == '\n') {
+                        break;
+                    } else if (c != '\r') {
+                        field.append((char) c);
+                    }
+                }
+                if (!any) {
+                    return null;
+                }
+                record.add(field.toString());
+                if (record.size() > 1 || !record.get(0).trim().isEmpty()) {
+                    return record;
+                }
+            }
+        }
+    }
+}
@@ -11,16 +11,25 @@ import android.util.Log;
 
 import androidx.core.content.FileProvider;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
 public class ImageUtils {
     private static final String TAG = "ImageUtils";
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+    // Enough for EXIF plus JPEG headers; larger headers fall back to reopening
+    private static final int HEADER_MARK_LIMIT = 512 * 1024;
 
     // Create a file to store the image
     public static File createImageFile(Context context) throws IOException {
@@ -44,120 +53,244 @@ public class ImageUtils {
         );
     }
 
-    // Process and optimize the captured/selected image
+    // Process and optimize the captured/selected image: decodeScaled, then the JPEG
+    // is hashed as it is written and stored as RECEIPT_<sha-256>.jpg, so the same
+    // picture attached to several expenses is one file; receipt_refs counts the
+    // expenses using it. Returns the stored path, or null on failure.
     public static String processImage(Context context, Uri imageUri) {
+        File processedFile = null;
+        Bitmap bitmap = null;
         try {
-            // Create a file to store the processed image
-            File processedFile = createImageFile(context);
-            
-            // Get input stream from URI
-            InputStream inputStream = context.getContentResolver().openInputStream(imageUri);
-            Bitmap originalBitmap = BitmapFactory.decodeStream(inputStream);
-            
-            if (originalBitmap == null) {
-                Log.e(TAG, "Failed to decode bitmap from URI: " + imageUri);
+            Decoded decoded = decodeScaled(context, imageUri);
+            if (decoded == null) {
                 return null;
             }
+            bitmap = decoded.bitmap;
+            Log.d(TAG, "Processed " + decoded.sourceWidth + "x" + decoded.sourceHeight
+                + " source, peak bitmap memory " + decoded.peakBytes + " bytes");
 
-            // Resize the image if it's too large
-            Bitmap resizedBitmap = resizeImage(originalBitmap);
-            
-            // Rotate the image if needed
-            Bitmap rotatedBitmap = rotateImageIfNeeded(context, resizedBitmap, imageUri);
-            
-            // Save the processed image
-            FileOutputStream fos = new FileOutputStream(processedFile);
-            rotatedBitmap.compress(
-                Bitmap.CompressFormat.JPEG,
-                Constants.IMAGE_COMPRESSION_QUALITY,
-                fos
-            );
-            fos.close();
-
-            // Clean up
-            if (rotatedBitmap != originalBitmap) {
-                rotatedBitmap.recycle();
+            // Stream the JPEG out, hashing it on the way
+            processedFile = createImageFile(context);
+            MessageDigest digest = sha256();
+            try (OutputStream out = new BufferedOutputStream(
+                    new DigestOutputStream(new FileOutputStream(processedFile), digest))) {
+                bitmap.compress(
+                    Bitmap.CompressFormat.JPEG,
+                    Constants.IMAGE_COMPRESSION_QUALITY,
+                    out
+                );
             }
-            originalBitmap.recycle();
 
-            return processedFile.getAbsolutePath();
+            File receipt = new File(processedFile.getParentFile(),
+                Constants.RECEIPT_PREFIX + toHex(digest.digest()) + Constants.IMAGE_EXTENSION);
+            // Same content already stored: keep that file. Rename is atomic in one
+            // directory, so a concurrent store of the same image can't leave half a file.
+            if (receipt.exists() || !processedFile.renameTo(receipt)) {
+                if (!receipt.exists()) {
+                    throw new IOException("Cannot store receipt as " + receipt);
+                }
+                processedFile.delete();
+                // Reused, possibly unreferenced for now: keep ReceiptGcWorker off it
+                receipt.setLastModified(System.currentTimeMillis());
+            }
+            processedFile = null;
+            return receipt.getAbsolutePath();
         } catch (IOException e) {
             Log.e(TAG, "Error processing image", e);
+            if (processedFile != null) {
+                processedFile.delete();
+            }
             return null;
+        } finally {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
         }
     }
 
-    // Resize image if dimensions exceed maximum allowed
-    private static Bitmap resizeImage(Bitmap bitmap) {
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        
-        if (width <= Constants.MAX_IMAGE_DIMENSION && height <= Constants.MAX_IMAGE_DIMENSION) {
-            return bitmap;
+    // An upright bitmap of about MAX_IMAGE_DIMENSION on its long edge, and the most
+    // bitmap memory that was live at once while producing it
+    static final class Decoded {
+        final Bitmap bitmap;
+        final long peakBytes;
+        final int sourceWidth;
+        final int sourceHeight;
+
+        Decoded(Bitmap bitmap, long peakBytes, int sourceWidth, int sourceHeight) {
+            this.bitmap = bitmap;
+            this.peakBytes = peakBytes;
+            this.sourceWidth = sourceWidth;
+            this.sourceHeight = sourceHeight;
         }
+    }
 
-        float ratio = (float) width / height;
-        
-        if (ratio > 1) {
-            // Width is greater than height
-            width = Constants.MAX_IMAGE_DIMENSION;
-            height = (int) (width / ratio);
-        } else {
-            // Height is greater than width
-            height = Constants.MAX_IMAGE_DIMENSION;
-            width = (int) (height * ratio);
+    // The source is opened once: EXIF orientation and pixel bounds are read from the
+    // buffered header, then the same stream is rewound and decoded directly at about
+    // MAX_IMAGE_DIMENSION (inSampleSize plus density scaling), so the full-resolution
+    // bitmap is never allocated. Rotation copies the already-small bitmap, and both
+    // are live until the copy is made, so a rotated image peaks at twice the target
+    // size; the decoded one is recycled straight after. Null on failure; the caller
+    // recycles the result.
+    static Decoded decodeScaled(Context context, Uri imageUri) throws IOException {
+        InputStream in = null;
+        Bitmap decoded = null;
+        try {
+            in = openBuffered(context, imageUri);
+
+            // EXIF orientation and bounds, from the same header bytes
+            int rotation = readRotationDegrees(in);
+            in = rewind(context, imageUri, in);
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeStream(in, null, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                Log.e(TAG, "Failed to read image bounds from URI: " + imageUri);
+                return null;
+            }
+            int sourceWidth = options.outWidth;
+            int sourceHeight = options.outHeight;
+
+            // Decode straight to the target size
+            in = rewind(context, imageUri, in);
+            configureScaledDecode(options, Constants.MAX_IMAGE_DIMENSION);
+            decoded = BitmapFactory.decodeStream(in, null, options);
+            if (decoded == null) {
+                Log.e(TAG, "Failed to decode bitmap from URI: " + imageUri);
+                return null;
+            }
+            in.close();
+            in = null;
+
+            long peakBytes = decoded.getAllocationByteCount();
+            Bitmap rotated = rotate(decoded, rotation);
+            if (rotated != decoded) {
+                peakBytes += rotated.getAllocationByteCount();
+                decoded.recycle();
+            }
+            decoded = null;
+            return new Decoded(rotated, peakBytes, sourceWidth, sourceHeight);
+        } finally {
+            closeQuietly(in);
+            if (decoded != null) {
+                decoded.recycle();
+            }
+        }
+    }
+
+    private static InputStream openBuffered(Context context, Uri imageUri) throws IOException {
+        InputStream raw = context.getContentResolver().openInputStream(imageUri);
+        if (raw == null) {
+            throw new IOException("Cannot open URI: " + imageUri);
+        }
+        InputStream in = new BufferedInputStream(raw, STREAM_BUFFER_SIZE);
+        in.mark(HEADER_MARK_LIMIT);
+        return in;
+    }
+
+    // Rewind to the start of the stream. Only headers are read before a rewind, so
+    // this normally succeeds; an oversized header falls back to reopening the URI.
+    private static InputStream rewind(Context context, Uri imageUri, InputStream in)
+            throws IOException {
+        try {
+            in.reset();
+            in.mark(HEADER_MARK_LIMIT);
+            return in;
+        } catch (IOException e) {
+            in.close();
+            return openBuffered(context, imageUri);
         }
+    }
 
-        return Bitmap.createScaledBitmap(bitmap, width, height, true);
+    // Pick the largest power-of-two sample that keeps the image at or above the
+    // target, then let the decoder scale the remainder via densities.
+    private static void configureScaledDecode(BitmapFactory.Options options, int maxDimension) {
+        int longest = Math.max(options.outWidth, options.outHeight);
+        int sampleSize = 1;
+        while (longest / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        int sampledLongest = (longest + sampleSize - 1) / sampleSize;
+        if (sampledLongest > maxDimension) {
+            options.inScaled = true;
+            options.inDensity = sampledLongest;
+            options.inTargetDensity = maxDimension;
+        }
     }
 
-    // Rotate image based on EXIF orientation
-    private static Bitmap rotateImageIfNeeded(Context context, Bitmap bitmap, Uri imageUri) {
+    // Read the EXIF orientation as degrees clockwise
+    private static int readRotationDegrees(InputStream in) {
         try {
-            InputStream inputStream = context.getContentResolver().openInputStream(imageUri);
-            ExifInterface ei = new ExifInterface(inputStream);
+            ExifInterface ei = new ExifInterface(in);
             int orientation = ei.getAttributeInt(
                 ExifInterface.TAG_ORIENTATION,
                 ExifInterface.ORIENTATION_NORMAL
             );
-
-            Matrix matrix = new Matrix();
             switch (orientation) {
                 case ExifInterface.ORIENTATION_ROTATE_90:
-                    matrix.postRotate(90);
-                    break;
+                    return 90;
                 case ExifInterface.ORIENTATION_ROTATE_180:
-                    matrix.postRotate(180);
-                    break;
+                    return 180;
                 case ExifInterface.ORIENTATION_ROTATE_270:
-                    matrix.postRotate(270);
-                    break;
+                    return 270;
                 default:
-                    return bitmap;
+                    return 0;
             }
-
-            Bitmap rotatedBitmap = Bitmap.createBitmap(
-                bitmap,
-                0,
-                0,
-                bitmap.getWidth(),
-                bitmap.getHeight(),
-                matrix,
-                true
-            );
-            
-            if (rotatedBitmap != bitmap) {
-                bitmap.recycle();
-            }
-            
-            return rotatedBitmap;
         } catch (IOException e) {
             Log.e(TAG, "Error getting EXIF orientation", e);
+            return 0;
+        }
+    }
+
+    // Rotate the bitmap, returning the input unchanged when no rotation is needed
+    private static Bitmap rotate(Bitmap bitmap, int degrees) {
+        if (degrees == 0) {
             return bitmap;
         }
+        Matrix matrix = new Matrix();
+        matrix.postRotate(degrees);
+        return Bitmap.createBitmap(
+            bitmap,
+            0,
+            0,
+            bitmap.getWidth(),
+            bitmap.getHeight(),
+            matrix,
+            true
+        );
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // Nothing useful to do
+            }
+        }
     }
 
-    // Delete image file
+    // Delete image file. Receipts may be shared between expenses: only delete one
+    // whose receipt_refs count has reached 0.
     public static boolean deleteImage(String imagePath) {
         if (imagePath == null) {
             return false;
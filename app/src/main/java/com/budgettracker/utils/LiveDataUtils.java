@@ -0,0 +1,40 @@
+package com.budgettracker.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+public class LiveDataUtils {
+
+    // Emits the latest source value once the source has been quiet for delayMs, so a
+    // burst of writes produces a single update. The first value is passed straight
+    // through so the screen isn't blank while waiting.
+    public static <T> LiveData<T> debounce(LiveData<T> source, long delayMs) {
+        Handler handler = new Handler(Looper.getMainLooper());
+        MediatorLiveData<T> result = new MediatorLiveData<>();
+        Object[] pending = new Object[1];
+        Runnable emit = new Runnable() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run() {
+                result.setValue((T) pending[0]);
+            }
+        };
+        result.addSource(source, value -> {
+            pending[0] = value;
+            handler.removeCallbacks(emit);
+            if (!result.isInitialized()) {
+                emit.run();
+            } else {
+                handler.postDelayed(emit, delayMs);
+            }
+        });
+        return result;
+    }
+
+    private LiveDataUtils() {
+        // Private constructor to prevent instantiation
+    }
+}
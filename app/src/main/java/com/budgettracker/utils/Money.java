@@ -0,0 +1,75 @@
+package com.budgettracker.utils;
+
+import androidx.annotation.NonNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Immutable amount of money stored as a whole number of minor units (hundredths),
+// so sums stay exact and SQLite aggregates them as integers.
+public final class Money implements Comparable<Money> {
+    // Number of decimal places held in minor units
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS_PER_MAJOR = 100;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // Parse user input such as "12.5" or "1234.56"; extra decimals are rounded half-up
+    public static Money parse(String value) {
+        try {
+            BigDecimal major = new BigDecimal(value.trim());
+            return ofMinorUnits(major.setScale(SCALE, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + value);
+        }
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    @Override
+    public int compareTo(@NonNull Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    // Plain decimal form, e.g. "-12.30", suitable for editing and export
+    @NonNull
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(minorUnits, SCALE).toPlainString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.budgettracker.utils;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+// Locale-aware currency formatting of minor-unit amounts. The locale's pattern is
+// resolved once; formatting itself is integer arithmetic into a StringBuilder.
+public final class MoneyFormatter {
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000};
+
+    private static volatile MoneyFormatter defaultInstance;
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+        ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    private final Locale locale;
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final char zeroDigit;
+    private final int groupingSize;
+    private final int fractionDigits;
+
+    private MoneyFormatter(Locale locale) {
+        this.locale = locale;
+        DecimalFormat format = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
+        DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+        positivePrefix = format.getPositivePrefix();
+        positiveSuffix = format.getPositiveSuffix();
+        negativePrefix = format.getNegativePrefix();
+        negativeSuffix = format.getNegativeSuffix();
+        decimalSeparator = symbols.getMonetaryDecimalSeparator();
+        groupingSeparator = symbols.getGroupingSeparator();
+        zeroDigit = symbols.getZeroDigit();
+        groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+        fractionDigits = Math.min(format.getMaximumFractionDigits(), POWERS_OF_TEN.length - 1);
+    }
+
+    // Formatter for the current default locale, rebuilt only when the locale changes
+    public static MoneyFormatter getInstance() {
+        Locale locale = Locale.getDefault();
+        MoneyFormatter formatter = defaultInstance;
+        if (formatter == null || !formatter.locale.equals(locale)) {
+            formatter = new MoneyFormatter(locale);
+            defaultInstance = formatter;
+        }
+        return formatter;
+    }
+
+    public String format(Money money) {
+        return format(money.getMinorUnits());
+    }
+
+    public String format(long minorUnits) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return formatTo(minorUnits, buffer).toString();
+    }
+
+    // Appends the formatted amount to out without allocating
+    public StringBuilder formatTo(long minorUnits, StringBuilder out) {
+        boolean negative = minorUnits < 0;
+        long value = Math.abs(minorUnits);
+
+        // Rescale from hundredths to the currency's own number of decimals
+        if (fractionDigits < Money.SCALE) {
+            long divisor = POWERS_OF_TEN[Money.SCALE - fractionDigits];
+            value = (value + divisor / 2) / divisor;
+        } else if (fractionDigits > Money.SCALE) {
+            value *= POWERS_OF_TEN[fractionDigits - Money.SCALE];
+        }
+        long factor = POWERS_OF_TEN[fractionDigits];
+
+        out.append(negative ? negativePrefix : positivePrefix);
+        appendGrouped(out, value / factor);
+        if (fractionDigits > 0) {
+            out.append(decimalSeparator);
+            long fraction = value % factor;
+            for (long p = factor / 10; p > 0; p /= 10) {
+                out.append((char) (zeroDigit + (fraction / p) % 10));
+            }
+        }
+        out.append(negative ? negativeSuffix : positiveSuffix);
+        return out;
+    }
+
+    private void appendGrouped(StringBuilder out, long value) {
+        int digits = 1;
+        long p = 1;
+        while (p <= value / 10) {
+            p *= 10;
+            digits++;
+        }
+        for (; p > 0; p /= 10) {
+            out.append((char) (zeroDigit + (value / p) % 10));
+            digits--;
+            if (groupingSize > 0 && digits > 0 && digits % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+    }
+}
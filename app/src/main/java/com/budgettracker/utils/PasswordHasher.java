@@ -0,0 +1,183 @@
+package com.budgettracker.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Base64;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Salted PBKDF2 password hashes, stored in users.password as
+// "pbkdf2-<digest>$<iterations>$<salt>$<hash>" (Base64). The iteration count is
+// calibrated once per install so one hash takes about PASSWORD_HASH_TARGET_MS on this
+// device, which keeps login latency the same on slow and fast phones; each stored
+// hash carries its own count, so a later calibration doesn't break old ones.
+//
+// Rows from before hashing hold the plain password. verify() still accepts them,
+// and needsRehash() tells the login flow to replace them after a successful login.
+//
+// Hashing is deliberately slow: call everything here off the main thread.
+public class PasswordHasher {
+    private static final String PREF_NAME = "PasswordHasher";
+    private static final String KEY_ITERATIONS = "iterations";
+    private static final String PREFIX = "pbkdf2-";
+    private static final String DIGEST = "sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int CALIBRATION_ITERATIONS = 10_000;
+    private static final int MIN_ITERATIONS = 10_000;
+    private static final int MAX_ITERATIONS = 2_000_000;
+
+    private static volatile PasswordHasher instance;
+
+    private final SharedPreferences prefs;
+    private final SecureRandom random = new SecureRandom();
+    private volatile int iterations;
+    // Verified against when the email is unknown or the row is still plain text, so
+    // those cost as much as a real check; built by prewarm()
+    private volatile String dummyHash;
+
+    private PasswordHasher(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        iterations = prefs.getInt(KEY_ITERATIONS, 0);
+    }
+
+    public static PasswordHasher getInstance(Context context) {
+        PasswordHasher result = instance;
+        if (result == null) {
+            synchronized (PasswordHasher.class) {
+                result = instance;
+                if (result == null) {
+                    result = new PasswordHasher(context);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Iterations for new hashes, calibrating on first use
+    public int getIterations() {
+        int current = iterations;
+        if (current == 0) {
+            synchronized (this) {
+                if (iterations == 0) {
+                    iterations = calibrate();
+                    prefs.edit().putInt(KEY_ITERATIONS, iterations).apply();
+                }
+                current = iterations;
+            }
+        }
+        return current;
+    }
+
+    // Calibrates and builds the dummy hash ahead of the first login attempt, which
+    // would otherwise pay for both and stand out by its timing
+    public void prewarm() {
+        getIterations();
+        getDummyHash();
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int count = getIterations();
+        byte[] hash = pbkdf2(password, salt, count);
+        return PREFIX + DIGEST + "$" + count + "$" + encode(salt) + "$" + encode(hash);
+    }
+
+    public boolean verify(String password, String stored) {
+        if (!stored.startsWith(PREFIX)) {
+            // Stored before hashing was introduced. The dummy check gives it the cost
+            // of a real one, so timing doesn't single out accounts not yet re-hashed.
+            verifyDummy(password);
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 4 || !parts[0].equals(DIGEST)) {
+            return false;
+        }
+        try {
+            int count = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.decode(parts[2], Base64.NO_WRAP);
+            byte[] expected = Base64.decode(parts[3], Base64.NO_WRAP);
+            byte[] actual = pbkdf2(password, salt, count);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Same work as verifying a real hash at the current cost, for unknown emails
+    public void verifyDummy(String password) {
+        verify(password, getDummyHash());
+    }
+
+    private String getDummyHash() {
+        String current = dummyHash;
+        if (current == null) {
+            synchronized (this) {
+                if (dummyHash == null) {
+                    dummyHash = hash("");
+                }
+                current = dummyHash;
+            }
+        }
+        return current;
+    }
+
+    // True for plain-text rows and for hashes made with fewer iterations than the
+    // current calibration
+    public boolean needsRehash(String stored) {
+        String expectedPrefix = PREFIX + DIGEST + "$";
+        if (!stored.startsWith(expectedPrefix)) {
+            return true;
+        }
+        int end = stored.indexOf('$', expectedPrefix.length());
+        try {
+            return end < 0
+                || Integer.parseInt(stored.substring(expectedPrefix.length(), end)) < getIterations();
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // Times a fixed number of iterations and scales to the target, best of three so
+    // a cold JIT or a busy core doesn't inflate the estimate
+    private int calibrate() {
+        byte[] salt = new byte[SALT_BYTES];
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            pbkdf2("calibration", salt, CALIBRATION_ITERATIONS);
+            best = Math.min(best, SystemClock.elapsedRealtimeNanos() - start);
+        }
+        long target = Constants.PASSWORD_HASH_TARGET_MS * 1_000_000L;
+        long scaled = CALIBRATION_ITERATIONS * target / Math.max(best, 1);
+        return (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, scaled));
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int count) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, count, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.encodeToString(bytes, Base64.NO_WRAP);
+    }
+}
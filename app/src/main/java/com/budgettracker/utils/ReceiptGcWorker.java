@@ -0,0 +1,205 @@
+package com.budgettracker.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Environment;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.budgettracker.database.AppDatabase;
+import com.budgettracker.database.ReceiptDao;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Periodic sweep of the receipt directory for images no expense points at:
+// captures abandoned before saving, and files left by writes that bypassed the
+// receipt_refs sweep. The listing is streamed and checked against receipt_refs
+// RECEIPT_GC_BATCH_SIZE names at a time; an unreferenced file is deleted once it is
+// older than RECEIPT_GC_GRACE_MS, so a picture still being attached is never taken.
+//
+// Each run stops after RECEIPT_GC_TIME_BUDGET_MS, or when WorkManager asks it to,
+// and remembers the last name it checked; the next run skips ahead to it. If that
+// file has since gone, the run starts again from the top. Bytes reclaimed are
+// logged and returned in the output data.
+public class ReceiptGcWorker extends Worker {
+    private static final String TAG = "ReceiptGcWorker";
+    private static final String WORK_NAME = "receipt_gc";
+    private static final String PREF_NAME = "ReceiptGc";
+    private static final String KEY_CURSOR = "cursor";
+
+    public static final String KEY_BYTES_RECLAIMED = "bytes_reclaimed";
+    public static final String KEY_FILES_DELETED = "files_deleted";
+
+    private final SharedPreferences prefs;
+    private long bytesReclaimed;
+    private int filesDeleted;
+    // Last name checked and whether the run stopped before the end of the listing
+    private String last;
+    private boolean paused;
+
+    public ReceiptGcWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+        prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    // Idempotent; an existing schedule is kept
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+            .setRequiresBatteryNotLow(true)
+            .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                ReceiptGcWorker.class, Constants.RECEIPT_GC_INTERVAL_HOURS, TimeUnit.HOURS)
+            .setConstraints(constraints)
+            .build();
+        WorkManager.getInstance(context.getApplicationContext())
+            .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        File dir = getApplicationContext().getExternalFilesDir(Environment.DIRECTORY_PICTURES);
+        if (dir == null) {
+            // External storage not mounted; try again next period
+            return Result.success();
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        long deadline = start + Constants.RECEIPT_GC_TIME_BUDGET_MS;
+        long cutoff = System.currentTimeMillis() - Constants.RECEIPT_GC_GRACE_MS;
+        ReceiptDao dao = AppDatabase.getInstance(getApplicationContext()).receiptDao();
+        String cursor = prefs.getString(KEY_CURSOR, null);
+
+        try {
+            if (!sweep(dir, dao, cursor, deadline, cutoff) && !paused) {
+                // The cursor's file is gone; the whole listing is still unchecked
+                sweep(dir, dao, null, deadline, cutoff);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot list " + dir, e);
+            return Result.retry();
+        }
+
+        // A complete pass restarts the next run from the top; a run paused before
+        // checking anything keeps its cursor
+        String next = null;
+        if (paused) {
+            next = last != null ? last : cursor;
+        }
+        prefs.edit().putString(KEY_CURSOR, next).apply();
+        Log.i(TAG, "Reclaimed " + bytesReclaimed + " bytes in " + filesDeleted + " files, "
+            + (paused ? "paused" : "pass complete") + " after "
+            + (SystemClock.elapsedRealtime() - start) + " ms");
+        return Result.success(new Data.Builder()
+            .putLong(KEY_BYTES_RECLAIMED, bytesReclaimed)
+            .putInt(KEY_FILES_DELETED, filesDeleted)
+            .build());
+    }
+
+    // Checks the listing from just after cursor (from the top when null), stopping at
+    // the deadline or a stop request. Returns false if cursor was never reached.
+    private boolean sweep(File dir, ReceiptDao dao, String cursor, long deadline, long cutoff)
+            throws IOException {
+        boolean resumed = cursor == null;
+        try (Listing listing = Listing.open(dir)) {
+            List<File> batch = new ArrayList<>(Constants.RECEIPT_GC_BATCH_SIZE);
+            while (listing.hasNext()) {
+                // Per entry: a directory of young or foreign files may never fill a batch
+                if (SystemClock.elapsedRealtime() >= deadline || isStopped()) {
+                    paused = true;
+                    break;
+                }
+                String name = listing.next();
+                if (!resumed) {
+                    // Skip to where the last run stopped
+                    resumed = name.equals(cursor);
+                    continue;
+                }
+                File file = new File(dir, name);
+                if (isReceiptName(name) && file.lastModified() < cutoff) {
+                    batch.add(file);
+                }
+                last = name;
+                if (batch.size() == Constants.RECEIPT_GC_BATCH_SIZE) {
+                    collect(dao, batch, cutoff);
+                    batch.clear();
+                }
+            }
+            collect(dao, batch, cutoff);
+        }
+        return resumed;
+    }
+
+    // One indexed lookup for the whole batch, then deletes what nothing references
+    private void collect(ReceiptDao dao, List<File> batch, long cutoff) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> paths = new ArrayList<>(batch.size());
+        for (File file : batch) {
+            paths.add(file.getAbsolutePath());
+        }
+        Set<String> referenced = new HashSet<>(dao.getReferencedPaths(paths));
+        for (File file : batch) {
+            // Checked again: attaching an existing receipt refreshes its timestamp
+            if (!referenced.contains(file.getAbsolutePath()) && file.lastModified() < cutoff) {
+                long length = file.length();
+                if (file.delete()) {
+                    bytesReclaimed += length;
+                    filesDeleted++;
+                }
+            }
+        }
+    }
+
+    private static boolean isReceiptName(String name) {
+        return name.endsWith(Constants.IMAGE_EXTENSION)
+            && (name.startsWith(Constants.RECEIPT_PREFIX) || name.startsWith(Constants.IMAGE_PREFIX));
+    }
+
+    // Directory entry names, streamed rather than listed in one go
+    private abstract static class Listing implements Iterator<String>, AutoCloseable {
+        static Listing open(File dir) throws IOException {
+            DirectoryStream<Path> stream = Files.newDirectoryStream(dir.toPath());
+            Iterator<Path> paths = stream.iterator();
+            return new Listing() {
+                @Override
+                public boolean hasNext() {
+                    return paths.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return paths.next().getFileName().toString();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    stream.close();
+                }
+            };
+        }
+
+        @Override
+        public abstract void close() throws IOException;
+    }
+}
@@ -0,0 +1,318 @@
+package com.budgettracker.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Two-level cache of receipt thumbnails: decoded bitmaps in a memory LRU sized from
+// the heap, backed by pre-scaled JPEGs on disk keyed by path and modification time.
+// Full-size receipts are decoded only the first time a thumbnail is needed.
+public class ReceiptThumbnailCache {
+    private static final String TAG = "ReceiptThumbnailCache";
+    private static final String DISK_CACHE_DIR = "receipt_thumbnails";
+    private static final long MAX_DISK_CACHE_BYTES = 20L * 1024 * 1024;
+    private static final int MEMORY_CACHE_HEAP_FRACTION = 8;
+    private static final int MAX_REUSABLE_BITMAPS = 8;
+
+    private static volatile ReceiptThumbnailCache instance;
+
+    private final File diskCacheDir;
+    private final LruCache<String, Bitmap> memoryCache;
+
+    // Bitmap reuse (inBitmap): a bitmap is only recycled into the pool once it has
+    // been evicted from memory and no ImageView is still showing it. Counts also
+    // pin a bitmap between the cache lookup and the main-thread show().
+    private final Map<Bitmap, Integer> displayCounts = new HashMap<>();
+    private final Set<Bitmap> evicted = new HashSet<>();
+    private final List<Bitmap> reusable = new ArrayList<>();
+
+    private ReceiptThumbnailCache(Context context) {
+        diskCacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / MEMORY_CACHE_HEAP_FRACTION);
+        memoryCache = new LruCache<String, Bitmap>(maxKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount() / 1024;
+            }
+
+            @Override
+            protected void entryRemoved(boolean wasEvicted, String key, Bitmap oldValue, Bitmap newValue) {
+                onEvicted(oldValue);
+            }
+        };
+    }
+
+    public static ReceiptThumbnailCache getInstance(Context context) {
+        ReceiptThumbnailCache result = instance;
+        if (result == null) {
+            synchronized (ReceiptThumbnailCache.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ReceiptThumbnailCache(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Show the thumbnail for photoPath in target. Call from the main thread; a memory
+    // hit is shown immediately, anything else is loaded on the IO pool. Rows that get
+    // rebound to another receipt in the meantime ignore the stale result.
+    public void load(String photoPath, ImageView target) {
+        Binding binding = bindingOf(target);
+        binding.photoPath = photoPath;
+        Bitmap cached = getPinned(photoPath);
+        if (cached != null) {
+            show(target, binding, cached);
+            release(cached);
+            return;
+        }
+
+        show(target, binding, null);
+        AppExecutors executors = AppExecutors.getInstance();
+        executors.io().execute(() -> {
+            Bitmap bitmap = get(photoPath);
+            executors.mainThread().execute(() -> {
+                if (photoPath.equals(binding.photoPath)) {
+                    show(target, binding, bitmap);
+                }
+                if (bitmap != null) {
+                    release(bitmap);
+                }
+            });
+        });
+    }
+
+    // Detach target from whatever it shows, e.g. when its row is recycled
+    public void clear(ImageView target) {
+        Binding binding = bindingOf(target);
+        binding.photoPath = null;
+        show(target, binding, null);
+    }
+
+    // Blocking lookup through both levels, on the IO pool. The result is pinned;
+    // the caller releases it once it is shown or dropped.
+    private Bitmap get(String photoPath) {
+        Bitmap bitmap = getPinned(photoPath);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        File source = new File(photoPath);
+        if (!source.exists()) {
+            return null;
+        }
+        File thumbnail = new File(diskCacheDir, diskKey(photoPath, source.lastModified()));
+        if (thumbnail.exists()) {
+            bitmap = decodeThumbnail(thumbnail);
+            thumbnail.setLastModified(System.currentTimeMillis());
+        }
+        if (bitmap == null) {
+            bitmap = createThumbnail(source, thumbnail);
+        }
+        if (bitmap != null) {
+            // Pinned first: the put itself may evict it
+            retain(bitmap);
+            memoryCache.put(photoPath, bitmap);
+        }
+        return bitmap;
+    }
+
+    // Memory hit, pinned under the same lock as onEvicted, so an eviction racing
+    // the lookup either misses or sees the pin
+    private synchronized Bitmap getPinned(String photoPath) {
+        Bitmap bitmap = memoryCache.get(photoPath);
+        if (bitmap != null) {
+            retain(bitmap);
+        }
+        return bitmap;
+    }
+
+    private Bitmap createThumbnail(File source, File thumbnail) {
+        int size = Constants.THUMBNAIL_DIMENSION;
+        Bitmap sampled = ImageUtils.loadBitmapFromFile(source.getAbsolutePath(), size, size);
+        if (sampled == null) {
+            return null;
+        }
+        float scale = Math.min(1f, (float) size / Math.max(sampled.getWidth(), sampled.getHeight()));
+        Bitmap scaled = scale < 1f
+            ? Bitmap.createScaledBitmap(sampled,
+                Math.round(sampled.getWidth() * scale), Math.round(sampled.getHeight() * scale), true)
+            : sampled;
+        if (scaled != sampled) {
+            sampled.recycle();
+        }
+
+        if (diskCacheDir.exists() || diskCacheDir.mkdirs()) {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(thumbnail))) {
+                scaled.compress(Bitmap.CompressFormat.JPEG, Constants.IMAGE_COMPRESSION_QUALITY, out);
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing thumbnail", e);
+                thumbnail.delete();
+            }
+            trimDiskCache();
+        }
+        return scaled;
+    }
+
+    private Bitmap decodeThumbnail(File thumbnail) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(thumbnail.getAbsolutePath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            // Unreadable; the caller recreates it from the source
+            return null;
+        }
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        Bitmap pooled = takeReusable(options.outWidth * options.outHeight * 4);
+        options.inBitmap = pooled;
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeFile(thumbnail.getAbsolutePath(), options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap didn't fit after all
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeFile(thumbnail.getAbsolutePath(), options);
+        }
+        if (pooled != null && bitmap != pooled) {
+            // Not decoded into; nothing else holds it
+            addReusable(pooled);
+        }
+        return bitmap;
+    }
+
+    private static Binding bindingOf(ImageView target) {
+        Object tag = target.getTag();
+        if (tag instanceof Binding) {
+            return (Binding) tag;
+        }
+        Binding binding = new Binding();
+        target.setTag(binding);
+        return binding;
+    }
+
+    private void show(ImageView target, Binding binding, Bitmap bitmap) {
+        if (binding.bitmap == bitmap) {
+            return;
+        }
+        if (binding.bitmap != null) {
+            release(binding.bitmap);
+        }
+        if (bitmap != null) {
+            retain(bitmap);
+        }
+        binding.bitmap = bitmap;
+        target.setImageBitmap(bitmap);
+    }
+
+    private synchronized void retain(Bitmap bitmap) {
+        Integer count = displayCounts.get(bitmap);
+        displayCounts.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    private synchronized void release(Bitmap bitmap) {
+        Integer count = displayCounts.get(bitmap);
+        if (count == null || count <= 1) {
+            displayCounts.remove(bitmap);
+            if (evicted.remove(bitmap)) {
+                addReusable(bitmap);
+            }
+        } else {
+            displayCounts.put(bitmap, count - 1);
+        }
+    }
+
+    private synchronized void onEvicted(Bitmap bitmap) {
+        if (displayCounts.containsKey(bitmap)) {
+            evicted.add(bitmap);
+        } else {
+            addReusable(bitmap);
+        }
+    }
+
+    private synchronized void addReusable(Bitmap bitmap) {
+        if (bitmap.isMutable() && reusable.size() < MAX_REUSABLE_BITMAPS) {
+            reusable.add(bitmap);
+        }
+    }
+
+    private synchronized Bitmap takeReusable(int byteCount) {
+        Iterator<Bitmap> iterator = reusable.iterator();
+        while (iterator.hasNext()) {
+            Bitmap candidate = iterator.next();
+            if (candidate.getAllocationByteCount() >= byteCount) {
+                iterator.remove();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Drop the least recently used thumbnails once the directory exceeds its budget
+    private void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= MAX_DISK_CACHE_BYTES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (total <= MAX_DISK_CACHE_BYTES * 3 / 4) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    // What an ImageView is currently bound to, kept in its tag
+    private static final class Binding {
+        String photoPath;
+        Bitmap bitmap;
+    }
+
+    private static String diskKey(String photoPath, long lastModified) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest((photoPath + ":" + lastModified).getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash) {
+                key.append(Character.forDigit((b >> 4) & 0xf, 16))
+                   .append(Character.forDigit(b & 0xf, 16));
+            }
+            return key.append(".jpg").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
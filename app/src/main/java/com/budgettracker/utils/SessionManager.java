@@ -3,6 +3,12 @@ package com.budgettracker.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Process-wide login session. The stored session is read once into an immutable
+// Session, and every getter reads that through a volatile reference, so the user id
+// costs no lock and no preferences lookup on any thread. Logging in or out swaps
+// in a new Session first and then persists it with apply(), off the main thread.
 public class SessionManager {
     private static final String PREF_NAME = "BudgetTrackerPrefs";
     private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
@@ -10,43 +16,124 @@ public class SessionManager {
     private static final String KEY_USER_NAME = "userName";
     private static final String KEY_USER_EMAIL = "userEmail";
 
-    private SharedPreferences pref;
-    private SharedPreferences.Editor editor;
-    private Context context;
+    // The logged-in user at one point in time; LOGGED_OUT when there is none
+    public static final class Session {
+        public static final Session LOGGED_OUT = new Session(-1, null, null);
+
+        private final int userId;
+        private final String userName;
+        private final String userEmail;
+
+        Session(int userId, String userName, String userEmail) {
+            this.userId = userId;
+            this.userName = userName;
+            this.userEmail = userEmail;
+        }
+
+        public boolean isLoggedIn() {
+            return this != LOGGED_OUT;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public String getUserEmail() {
+            return userEmail;
+        }
+    }
+
+    // Told about every login and logout, on the thread that made it, after the new
+    // session is visible to readers
+    public interface Listener {
+        void onSessionChanged(Session previous, Session current);
+    }
+
+    private static volatile SessionManager instance;
 
-    public SessionManager(Context context) {
-        this.context = context;
+    private final SharedPreferences pref;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Written under this lock, read without it
+    private volatile Session session;
+
+    private SessionManager(Context context) {
         pref = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        editor = pref.edit();
+        session = pref.getBoolean(KEY_IS_LOGGED_IN, false)
+            ? new Session(pref.getInt(KEY_USER_ID, -1),
+                pref.getString(KEY_USER_NAME, null), pref.getString(KEY_USER_EMAIL, null))
+            : Session.LOGGED_OUT;
+    }
+
+    public static SessionManager getInstance(Context context) {
+        SessionManager result = instance;
+        if (result == null) {
+            synchronized (SessionManager.class) {
+                result = instance;
+                if (result == null) {
+                    result = new SessionManager(context.getApplicationContext());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
     }
 
     public void createLoginSession(int userId, String name, String email) {
-        editor.putBoolean(KEY_IS_LOGGED_IN, true);
-        editor.putInt(KEY_USER_ID, userId);
-        editor.putString(KEY_USER_NAME, name);
-        editor.putString(KEY_USER_EMAIL, email);
-        editor.commit();
+        Session previous;
+        Session current = new Session(userId, name, email);
+        synchronized (this) {
+            previous = session;
+            session = current;
+            pref.edit()
+                .putBoolean(KEY_IS_LOGGED_IN, true)
+                .putInt(KEY_USER_ID, userId)
+                .putString(KEY_USER_NAME, name)
+                .putString(KEY_USER_EMAIL, email)
+                .apply();
+        }
+        notifyListeners(previous, current);
     }
 
     public boolean isLoggedIn() {
-        return pref.getBoolean(KEY_IS_LOGGED_IN, false);
+        return session.isLoggedIn();
     }
 
     public void logout() {
-        editor.clear();
-        editor.commit();
+        Session previous;
+        synchronized (this) {
+            previous = session;
+            session = Session.LOGGED_OUT;
+            pref.edit().clear().apply();
+        }
+        notifyListeners(previous, Session.LOGGED_OUT);
     }
 
     public int getUserId() {
-        return pref.getInt(KEY_USER_ID, -1);
+        return session.getUserId();
     }
 
     public String getUserName() {
-        return pref.getString(KEY_USER_NAME, null);
+        return session.getUserName();
     }
 
     public String getUserEmail() {
-        return pref.getString(KEY_USER_EMAIL, null);
+        return session.getUserEmail();
     }
 
     public boolean checkLogin() {
@@ -55,4 +142,13 @@ public class SessionManager {
         }
         return true;
     }
+
+    private void notifyListeners(Session previous, Session current) {
+        if (previous == current) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.onSessionChanged(previous, current);
+        }
+    }
 }
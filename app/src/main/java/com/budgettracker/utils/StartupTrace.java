@@ -0,0 +1,59 @@
+package com.budgettracker.utils;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Cold start timeline. Milestones are stamped in ms since the process was forked
+// and logged together when the dashboard first shows data, which is also reported
+// to the system through reportFullyDrawn() so the "Fully drawn" logcat line and
+// the startup track in a Perfetto trace line up with it. Only the first dashboard
+// of a process is reported; after that, mark() does nothing.
+public class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    private static final List<String> milestones = new ArrayList<>();
+    private static boolean reported;
+
+    // Private constructor to prevent instantiation
+    private StartupTrace() {}
+
+    public static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+
+    // Any thread
+    public static void mark(String milestone) {
+        long elapsed = sinceProcessStart();
+        String thread = Thread.currentThread().getName();
+        synchronized (milestones) {
+            if (!reported) {
+                milestones.add(String.format(Locale.ROOT, "%6d ms  %s [%s]", elapsed, milestone, thread));
+            }
+        }
+    }
+
+    // Call from the main thread once the dashboard shows real data
+    public static void firstDashboard(Activity activity) {
+        long elapsed = sinceProcessStart();
+        StringBuilder report = new StringBuilder();
+        synchronized (milestones) {
+            if (reported) {
+                return;
+            }
+            reported = true;
+            report.append("Time to first dashboard: ").append(elapsed).append(" ms");
+            for (String milestone : milestones) {
+                report.append("\n  ").append(milestone);
+            }
+            milestones.clear();
+        }
+        activity.reportFullyDrawn();
+        Log.i(TAG, report.toString());
+    }
+}
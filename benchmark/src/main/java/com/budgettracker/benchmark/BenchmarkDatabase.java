@@ -0,0 +1,177 @@
+package com.budgettracker.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Random;
+
+// Seeded SQLite files shared by the benchmarks. Each size is generated once from a
+// fixed seed and reused across runs, so two runs on the same machine measure the
+// same bytes on disk.
+final class BenchmarkDatabase {
+
+    // The user every benchmark queries
+    static final int USER_ID = 1;
+    // A second user with a tenth of the rows, so userId is never the whole table
+    static final int OTHER_USER_ID = 2;
+
+    // Expenses span the three years ending here; queries target the last month
+    static final LocalDate LAST_DAY = LocalDate.of(2024, 12, 31);
+    static final int DAYS = 3 * 365;
+
+    private static final long SEED = 20240101L;
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String[] CATEGORY_NAMES = {
+        "Food", "Groceries", "Transport", "Fuel", "Rent", "Utilities", "Internet",
+        "Phone", "Insurance", "Health", "Pharmacy", "Entertainment", "Streaming",
+        "Clothing", "Education", "Gifts", "Travel", "Dining Out", "Coffee", "Savings"
+    };
+
+    private static final String[] WORDS = {
+        "lunch", "taxi", "bus", "monthly", "groceries", "dinner", "coffee", "fuel",
+        "electricity", "water", "airtime", "data", "books", "movie", "pharmacy",
+        "shoes", "gift", "rent", "subscription", "parking"
+    };
+
+    static long toMillis(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Same formula as DateUtils.toEpochMonth
+    static int toEpochMonth(LocalDate date) {
+        return (date.getYear() - 1970) * 12 + date.getMonthValue() - 1;
+    }
+
+    // Categories grow with the dataset so category search has something to scan
+    static int categoryCount(int size) {
+        return Math.max(CATEGORY_NAMES.length, size / 100);
+    }
+
+    // Opens the seeded file for the given number of expenses, creating it first if
+    // needed. Connection settings match what Room uses on a device: WAL journal
+    // and synchronous=NORMAL.
+    static Connection open(int size) throws SQLException, IOException {
+        File file = seededFile(size);
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            statement.execute("PRAGMA synchronous = NORMAL");
+        }
+        return connection;
+    }
+
+    private static synchronized File seededFile(int size) throws SQLException, IOException {
+        File dir = new File(System.getProperty("benchmark.dataDir",
+                System.getProperty("java.io.tmpdir")));
+        File file = new File(dir, "expenses-v" + Schema.VERSION + "-" + size + ".db");
+        if (file.exists()) {
+            return file;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+
+        // Seed into a temporary file and move it into place, so an interrupted run
+        // never leaves a half-seeded database behind
+        File temp = new File(dir, file.getName() + ".tmp");
+        Files.deleteIfExists(temp.toPath());
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + temp.getPath())) {
+            seed(connection, size);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    private static void seed(Connection connection, int size) throws SQLException {
+        Random random = new Random(SEED);
+        Schema.createTables(connection);
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement insertUser = connection.prepareStatement(
+                "INSERT INTO users (userId, name, email, password) VALUES (?, ?, ?, ?)")) {
+            for (int userId : new int[] {USER_ID, OTHER_USER_ID}) {
+                insertUser.setInt(1, userId);
+                insertUser.setString(2, "User " + userId);
+                insertUser.setString(3, "user" + userId + "@example.com");
+                insertUser.setString(4, "password");
+                insertUser.executeUpdate();
+            }
+        }
+
+        int categories = categoryCount(size);
+        try (PreparedStatement insertCategory = connection.prepareStatement(
+                "INSERT INTO categories (categoryName) VALUES (?)")) {
+            for (int i = 0; i < categories; i++) {
+                String name = CATEGORY_NAMES[i % CATEGORY_NAMES.length];
+                insertCategory.setString(1, i < CATEGORY_NAMES.length ? name : name + " " + i);
+                insertCategory.addBatch();
+            }
+            insertCategory.executeBatch();
+        }
+
+        int rows = size + size / 10;
+        try (PreparedStatement insertExpense = connection.prepareStatement(
+                "INSERT INTO expenses (userId, categoryId, date, time, description, amount, photoUri) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                LocalDate day = LAST_DAY.minusDays(random.nextInt(DAYS));
+                // Most spending lands in the everyday categories
+                int categoryId = random.nextInt(10) < 8
+                        ? 1 + random.nextInt(CATEGORY_NAMES.length)
+                        : 1 + random.nextInt(categories);
+                insertExpense.setInt(1, i % 11 == 10 ? OTHER_USER_ID : USER_ID);
+                insertExpense.setInt(2, categoryId);
+                insertExpense.setLong(3, toMillis(day) + random.nextInt(86_400) * 1000L);
+                insertExpense.setString(4, String.format("%02d:%02d",
+                        random.nextInt(24), random.nextInt(60)));
+                insertExpense.setString(5, WORDS[random.nextInt(WORDS.length)] + " " +
+                        WORDS[random.nextInt(WORDS.length)]);
+                insertExpense.setLong(6, 100 + random.nextInt(50_000));
+                insertExpense.setString(7, random.nextInt(10) == 0
+                        ? "/data/receipts/receipt_" + i + ".jpg" : null);
+                insertExpense.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insertExpense.executeBatch();
+                }
+            }
+            insertExpense.executeBatch();
+        }
+
+        try (PreparedStatement insertBudget = connection.prepareStatement(
+                "INSERT INTO budgets (userId, epochMonth, minSpending, maxSpending) " +
+                "VALUES (?, ?, ?, ?)")) {
+            int lastMonth = toEpochMonth(LAST_DAY);
+            for (int month = lastMonth - 35; month <= lastMonth; month++) {
+                insertBudget.setInt(1, USER_ID);
+                insertBudget.setInt(2, month);
+                insertBudget.setLong(3, 500_000);
+                insertBudget.setLong(4, 1_000_000);
+                insertBudget.addBatch();
+            }
+            insertBudget.executeBatch();
+        }
+
+        Schema.rebuildRollup(connection);
+        Schema.createTriggers(connection);
+        connection.commit();
+
+        // No ANALYZE: the app never runs it, so the planner must do without stats here too
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM");
+        }
+    }
+
+    private BenchmarkDatabase() {
+        // Private constructor to prevent instantiation
+    }
+}
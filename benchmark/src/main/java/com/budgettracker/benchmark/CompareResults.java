@@ -0,0 +1,92 @@
+package com.budgettracker.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compares two JMH JSON result files benchmark by benchmark. A change is only
+// reported as faster or slower when the scores differ by more than the two 99.9%
+// error margins combined; anything inside that is noise on this machine.
+public class CompareResults {
+
+    private static final class Score {
+        final double value;
+        final double error;
+        final String unit;
+
+        Score(double value, double error, String unit) {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(args[0]);
+        Map<String, Score> candidate = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-70s %12s %12s %8s  %s%n",
+                "benchmark", "baseline", "candidate", "change", "verdict");
+        for (Map.Entry<String, Score> entry : candidate.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-70s %12s %12.3f %8s  new%n", entry.getKey(), "-", after.value, "-");
+                continue;
+            }
+            double change = (after.value - before.value) / before.value * 100;
+            boolean significant = Math.abs(after.value - before.value) > before.error + after.error;
+            // Lower is better for the time-per-op modes the benchmarks use
+            String verdict = !significant ? "same" : after.value < before.value ? "faster" : "slower";
+            if ("slower".equals(verdict)) {
+                regressions++;
+            }
+            System.out.printf("%-70s %12.3f %12.3f %+7.1f%%  %s (%s)%n",
+                    entry.getKey(), before.value, after.value, change, verdict, after.unit);
+        }
+        for (String key : baseline.keySet()) {
+            if (!candidate.containsKey(key)) {
+                System.out.printf("%-70s %12.3f %12s %8s  removed%n", key, baseline.get(key).value, "-", "-");
+            }
+        }
+        System.out.println(regressions + " significant regression(s)");
+    }
+
+    private static Map<String, Score> read(String path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString()
+                        .replace(CompareResults.class.getPackage().getName() + ".", ""));
+                if (run.has("params")) {
+                    for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                        key.append(' ').append(param.getKey()).append('=')
+                                .append(param.getValue().getAsString());
+                    }
+                }
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                double error = metric.get("scoreError").isJsonPrimitive()
+                        && metric.get("scoreError").getAsJsonPrimitive().isNumber()
+                        ? metric.get("scoreError").getAsDouble() : 0;
+                scores.put(key.toString(), new Score(metric.get("score").getAsDouble(), error,
+                        metric.get("scoreUnit").getAsString()));
+            }
+        }
+        return scores;
+    }
+}
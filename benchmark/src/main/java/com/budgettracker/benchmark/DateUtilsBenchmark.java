@@ -0,0 +1,116 @@
+package com.budgettracker.benchmark;
+
+import com.budgettracker.utils.DateUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The app's DateUtils against the SimpleDateFormat version it replaced
+// (LegacyDateUtils), on the calls the dashboard, list and import paths make per
+// row. legacy* and current* pairs do the same work; compare them by name. The
+// *Contended pairs run on four threads, the way the executors call in: LegacyDateUtils
+// serializes on its shared formats there, DateUtils shares nothing mutable.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateUtilsBenchmark {
+
+    // Mid-month, mid-day, so no time zone puts it in another month
+    private final Date date = new Date(1_700_000_000_000L);
+    private final Date otherDate = new Date(1_700_500_000_000L);
+    private final String dateString = "2023-11-14";
+    private final String monthYear = "2023-11";
+
+    @Benchmark
+    public String legacyFormatDate() {
+        return LegacyDateUtils.formatDate(date);
+    }
+
+    @Benchmark
+    public String currentFormatDate() {
+        return DateUtils.formatDate(date);
+    }
+
+    @Benchmark
+    public Date legacyParseDate() {
+        return LegacyDateUtils.parseDate(dateString);
+    }
+
+    @Benchmark
+    public Date currentParseDate() {
+        return DateUtils.parseDate(dateString);
+    }
+
+    // Month range for the budget and summary queries
+    @Benchmark
+    public long legacyMonthRange() {
+        return LegacyDateUtils.getLastDayOfMonth(monthYear).getTime()
+            - LegacyDateUtils.getFirstDayOfMonth(monthYear).getTime();
+    }
+
+    @Benchmark
+    public long currentMonthRange() {
+        return DateUtils.getLastDayOfMonth(monthYear).getTime()
+            - DateUtils.getFirstDayOfMonth(monthYear).getTime();
+    }
+
+    @Benchmark
+    public boolean legacyIsSameMonth() {
+        return LegacyDateUtils.isSameMonth(date, otherDate);
+    }
+
+    @Benchmark
+    public boolean currentIsSameMonth() {
+        return DateUtils.isSameMonth(date, otherDate);
+    }
+
+    @Benchmark
+    public String legacyFormatMonthYearForDisplay() {
+        return LegacyDateUtils.formatMonthYearForDisplay(monthYear);
+    }
+
+    @Benchmark
+    public String currentFormatMonthYearForDisplay() {
+        return DateUtils.formatMonthYearForDisplay(monthYear);
+    }
+
+    // Executor threads formatting concurrently
+    @Benchmark
+    @Threads(4)
+    public String legacyFormatDateContended() {
+        return LegacyDateUtils.formatDate(date);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String currentFormatDateContended() {
+        return DateUtils.formatDate(date);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long legacyMonthRangeContended() {
+        return LegacyDateUtils.getLastDayOfMonth(monthYear).getTime()
+            - LegacyDateUtils.getFirstDayOfMonth(monthYear).getTime();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long currentMonthRangeContended() {
+        return DateUtils.getLastDayOfMonth(monthYear).getTime()
+            - DateUtils.getFirstDayOfMonth(monthYear).getTime();
+    }
+}
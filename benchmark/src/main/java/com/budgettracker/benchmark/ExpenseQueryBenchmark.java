@@ -0,0 +1,283 @@
+package com.budgettracker.benchmark;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Read paths of ExpenseDao, MonthlyTotalDao, CategoryDao and BudgetDao. Each
+// statement is the DAO's @Query with named parameters turned into '?'; the method
+// names say which DAO method it stands for. Rows are read column by column the way
+// Room's generated code maps a cursor, so result materialization is measured too.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Connection connection;
+    private PreparedStatement expensesByDateRange;
+    private PreparedStatement totalByDateRange;
+    private PreparedStatement sumByCategory;
+    private PreparedStatement latestExpenses;
+    private PreparedStatement expensesOlderThan;
+    private PreparedStatement monthTotal;
+    private PreparedStatement allTimeTotal;
+    private PreparedStatement expenseCountsByCategory;
+    private PreparedStatement searchExpenses;
+    private PreparedStatement searchCategories;
+    private PreparedStatement budgetsByYear;
+
+    private long monthStart;
+    private long monthEnd;
+    private int lastEpochMonth;
+    // Keyset of a row roughly halfway down the user's history
+    private long middleDate;
+    private int middleExpenseId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        connection = BenchmarkDatabase.open(size);
+
+        monthStart = BenchmarkDatabase.toMillis(BenchmarkDatabase.LAST_DAY.withDayOfMonth(1));
+        monthEnd = BenchmarkDatabase.toMillis(BenchmarkDatabase.LAST_DAY.plusDays(1)) - 1;
+        lastEpochMonth = BenchmarkDatabase.toEpochMonth(BenchmarkDatabase.LAST_DAY);
+
+        expensesByDateRange = connection.prepareStatement(
+                "SELECT * FROM expenses WHERE userId = ? AND date BETWEEN ? AND ? ORDER BY date DESC");
+        totalByDateRange = connection.prepareStatement(
+                "SELECT IFNULL(SUM(amount), 0) FROM expenses WHERE userId = ? AND date BETWEEN ? AND ?");
+        sumByCategory = connection.prepareStatement(
+                "SELECT categoryId, SUM(amount) as total FROM expenses WHERE userId = ? " +
+                "AND date BETWEEN ? AND ? GROUP BY categoryId");
+        latestExpenses = connection.prepareStatement(
+                "SELECT * FROM expenses WHERE userId = ? " +
+                "ORDER BY date DESC, expenseId DESC LIMIT ?");
+        expensesOlderThan = connection.prepareStatement(
+                "SELECT * FROM expenses WHERE userId = ? AND date <= ? " +
+                "AND (date < ? OR expenseId < ?) " +
+                "ORDER BY date DESC, expenseId DESC LIMIT ?");
+        monthTotal = connection.prepareStatement(
+                "SELECT IFNULL(SUM(total), 0) FROM monthly_category_totals " +
+                "WHERE userId = ? AND epochMonth = ?");
+        allTimeTotal = connection.prepareStatement(
+                "SELECT IFNULL(SUM(total), 0) FROM monthly_category_totals WHERE userId = ?");
+        expenseCountsByCategory = connection.prepareStatement(
+                "SELECT categoryId, COUNT(*) AS expenseCount FROM expenses " +
+                "WHERE userId = ? GROUP BY categoryId");
+        searchExpenses = connection.prepareStatement(
+                "SELECT e.* FROM expenses_fts CROSS JOIN expenses e ON e.expenseId = expenses_fts.docid " +
+                "WHERE expenses_fts MATCH ? AND e.userId = ? " +
+                "ORDER BY e.description LIKE ? || '%' DESC, e.date DESC, e.expenseId DESC " +
+                "LIMIT ? OFFSET ?");
+        searchCategories = connection.prepareStatement(
+                "SELECT c.* FROM categories_fts CROSS JOIN categories c ON c.categoryId = categories_fts.docid " +
+                "WHERE categories_fts MATCH ? " +
+                "ORDER BY c.categoryName LIKE ? || '%' DESC, c.categoryName " +
+                "LIMIT ? OFFSET ?");
+        budgetsByYear = connection.prepareStatement(
+                "SELECT * FROM budgets WHERE userId = ? " +
+                "AND epochMonth BETWEEN (? - 1970) * 12 AND (? - 1970) * 12 + 11 " +
+                "ORDER BY epochMonth");
+
+        try (PreparedStatement middle = connection.prepareStatement(
+                "SELECT date, expenseId FROM expenses WHERE userId = ? " +
+                "ORDER BY date DESC, expenseId DESC LIMIT 1 OFFSET ?")) {
+            middle.setInt(1, BenchmarkDatabase.USER_ID);
+            middle.setInt(2, size / 2);
+            try (ResultSet rs = middle.executeQuery()) {
+                rs.next();
+                middleDate = rs.getLong(1);
+                middleExpenseId = rs.getInt(2);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private static int readExpenses(ResultSet rs, Blackhole bh) throws SQLException {
+        int rows = 0;
+        while (rs.next()) {
+            bh.consume(rs.getInt(1));
+            bh.consume(rs.getInt(2));
+            bh.consume(rs.getInt(3));
+            bh.consume(rs.getLong(4));
+            bh.consume(rs.getString(5));
+            bh.consume(rs.getString(6));
+            bh.consume(rs.getLong(7));
+            bh.consume(rs.getString(8));
+            rows++;
+        }
+        rs.close();
+        return rows;
+    }
+
+    private static long readLong(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static int readPairs(PreparedStatement statement, Blackhole bh) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getInt(1));
+                bh.consume(rs.getLong(2));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // ExpenseDao.getExpensesByDateRange over the last month
+    @Benchmark
+    public int expensesByDateRange(Blackhole bh) throws SQLException {
+        expensesByDateRange.setInt(1, BenchmarkDatabase.USER_ID);
+        expensesByDateRange.setLong(2, monthStart);
+        expensesByDateRange.setLong(3, monthEnd);
+        return readExpenses(expensesByDateRange.executeQuery(), bh);
+    }
+
+    // ExpenseDao.getTotalExpensesByDateRange over the last month
+    @Benchmark
+    public long totalByDateRange() throws SQLException {
+        totalByDateRange.setInt(1, BenchmarkDatabase.USER_ID);
+        totalByDateRange.setLong(2, monthStart);
+        totalByDateRange.setLong(3, monthEnd);
+        return readLong(totalByDateRange);
+    }
+
+    // ExpenseDao.getExpenseSumByCategory over the last month
+    @Benchmark
+    public int sumByCategory(Blackhole bh) throws SQLException {
+        sumByCategory.setInt(1, BenchmarkDatabase.USER_ID);
+        sumByCategory.setLong(2, monthStart);
+        sumByCategory.setLong(3, monthEnd);
+        return readPairs(sumByCategory, bh);
+    }
+
+    // ExpenseDao.getLatestExpenses, the first page of the expense list
+    @Benchmark
+    public int latestPage(Blackhole bh) throws SQLException {
+        latestExpenses.setInt(1, BenchmarkDatabase.USER_ID);
+        latestExpenses.setInt(2, 20);
+        return readExpenses(latestExpenses.executeQuery(), bh);
+    }
+
+    // ExpenseDao.getExpensesOlderThan, a page deep into the history
+    @Benchmark
+    public int olderPage(Blackhole bh) throws SQLException {
+        expensesOlderThan.setInt(1, BenchmarkDatabase.USER_ID);
+        expensesOlderThan.setLong(2, middleDate);
+        expensesOlderThan.setLong(3, middleDate);
+        expensesOlderThan.setInt(4, middleExpenseId);
+        expensesOlderThan.setInt(5, 20);
+        return readExpenses(expensesOlderThan.executeQuery(), bh);
+    }
+
+    // MonthlyTotalDao.getMonthTotal, the dashboard figure
+    @Benchmark
+    public long rollupMonthTotal() throws SQLException {
+        monthTotal.setInt(1, BenchmarkDatabase.USER_ID);
+        monthTotal.setInt(2, lastEpochMonth);
+        return readLong(monthTotal);
+    }
+
+    // MonthlyTotalDao.getAllTimeTotal
+    @Benchmark
+    public long rollupAllTimeTotal() throws SQLException {
+        allTimeTotal.setInt(1, BenchmarkDatabase.USER_ID);
+        return readLong(allTimeTotal);
+    }
+
+    // CategoryDao.getExpenseCountsByCategory
+    @Benchmark
+    public int expenseCountsByCategory(Blackhole bh) throws SQLException {
+        expenseCountsByCategory.setInt(1, BenchmarkDatabase.USER_ID);
+        return readPairs(expenseCountsByCategory, bh);
+    }
+
+    // ExpenseDao.searchExpenses, first page for a one and a two word query (each
+    // seeded word is in roughly a tenth of the descriptions)
+    @Benchmark
+    public int searchExpensesOneWord(Blackhole bh) throws SQLException {
+        return searchExpenses("electri*", "electri", bh);
+    }
+
+    @Benchmark
+    public int searchExpensesTwoWords(Blackhole bh) throws SQLException {
+        return searchExpenses("lunch* d*", "lunch", bh);
+    }
+
+    private int searchExpenses(String match, String leadingTerm, Blackhole bh) throws SQLException {
+        searchExpenses.setString(1, match);
+        searchExpenses.setInt(2, BenchmarkDatabase.USER_ID);
+        searchExpenses.setString(3, leadingTerm);
+        searchExpenses.setInt(4, 20);
+        searchExpenses.setInt(5, 0);
+        return readExpenses(searchExpenses.executeQuery(), bh);
+    }
+
+    // CategoryDao.searchCategories
+    @Benchmark
+    public int searchCategories(Blackhole bh) throws SQLException {
+        searchCategories.setString(1, "din*");
+        searchCategories.setString(2, "din");
+        searchCategories.setInt(3, 20);
+        searchCategories.setInt(4, 0);
+        int rows = 0;
+        try (ResultSet rs = searchCategories.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getInt(1));
+                bh.consume(rs.getString(2));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // BudgetDao.getBudgetsByYear
+    @Benchmark
+    public int budgetsByYear(Blackhole bh) throws SQLException {
+        int year = BenchmarkDatabase.LAST_DAY.getYear();
+        budgetsByYear.setInt(1, BenchmarkDatabase.USER_ID);
+        budgetsByYear.setInt(2, year);
+        budgetsByYear.setInt(3, year);
+        int rows = 0;
+        try (ResultSet rs = budgetsByYear.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getInt(1));
+                bh.consume(rs.getInt(3));
+                bh.consume(rs.getLong(4));
+                bh.consume(rs.getLong(5));
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,93 @@
+package com.budgettracker.benchmark;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ExpenseDao.insertExpense, including the rollup triggers and all four expense
+// indexes. Every operation rolls its transaction back so the seeded file stays the
+// same size for the whole run; the rollback is part of the measured time, and the
+// commit fsync is not.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseWriteBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Connection connection;
+    private PreparedStatement insertExpense;
+    private long monthStart;
+    private int categories;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        connection = BenchmarkDatabase.open(size);
+        connection.setAutoCommit(false);
+        insertExpense = connection.prepareStatement(
+                "INSERT INTO expenses (userId, categoryId, date, time, description, amount, photoUri) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)");
+        monthStart = BenchmarkDatabase.toMillis(BenchmarkDatabase.LAST_DAY.withDayOfMonth(1));
+        categories = BenchmarkDatabase.categoryCount(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.rollback();
+        connection.close();
+    }
+
+    private void bind() throws SQLException {
+        int i = next++;
+        insertExpense.setInt(1, BenchmarkDatabase.USER_ID);
+        insertExpense.setInt(2, 1 + i % categories);
+        insertExpense.setLong(3, monthStart + (i % 30) * 86_400_000L + i % 86_400_000);
+        insertExpense.setString(4, "12:00");
+        insertExpense.setString(5, "benchmark expense");
+        insertExpense.setLong(6, 1_234);
+        insertExpense.setString(7, null);
+    }
+
+    // One expense, as saved from AddExpenseActivity
+    @Benchmark
+    public int insertOne() throws SQLException {
+        bind();
+        int inserted = insertExpense.executeUpdate();
+        connection.rollback();
+        return inserted;
+    }
+
+    // A batch of expenses in one transaction, as an import would write them
+    @Benchmark
+    public int insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH; i++) {
+            bind();
+            insertExpense.addBatch();
+        }
+        int inserted = insertExpense.executeBatch().length;
+        connection.rollback();
+        return inserted;
+    }
+}
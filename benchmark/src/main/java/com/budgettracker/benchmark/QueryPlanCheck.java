@@ -0,0 +1,170 @@
+package com.budgettracker.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runs EXPLAIN QUERY PLAN on the hot DAO queries against the current Schema and
+// fails if any of them scans a table instead of searching an index. Each query is
+// the DAO's @Query with named parameters turned into '?', keyed by the DAO method
+// it stands for, next to the index it is expected to use. The database is empty
+// and unanalyzed, as on a fresh install, so the plans are the planner's defaults.
+//
+//   gradle -p benchmark checkQueryPlans
+public class QueryPlanCheck {
+
+    private static final class Expected {
+        final String sql;
+        final String index;
+
+        Expected(String sql, String index) {
+            this.sql = sql;
+            this.index = index;
+        }
+    }
+
+    private static final Map<String, Expected> QUERIES = new LinkedHashMap<>();
+
+    private static void expect(String method, String index, String sql) {
+        QUERIES.put(method, new Expected(sql, index));
+    }
+
+    static {
+        String userDate = "index_expenses_userId_date_categoryId_amount";
+        String userCategoryDate = "index_expenses_userId_categoryId_date";
+        String rollupKey = "sqlite_autoindex_monthly_category_totals_1";
+        String budgetMonth = "index_budgets_userId_epochMonth";
+
+        expect("ExpenseDao.getAllExpensesByUser", userDate,
+                "SELECT * FROM expenses WHERE userId = ? ORDER BY date DESC");
+        expect("ExpenseDao.getExpensesByDateRange", userDate,
+                "SELECT * FROM expenses WHERE userId = ? AND date BETWEEN ? AND ? ORDER BY date DESC");
+        expect("ExpenseDao.getExpensesByCategory", userCategoryDate,
+                "SELECT * FROM expenses WHERE userId = ? AND categoryId = ? ORDER BY date DESC");
+        expect("ExpenseDao.getTotalExpensesByDateRange", userDate,
+                "SELECT IFNULL(SUM(amount), 0) FROM expenses WHERE userId = ? AND date BETWEEN ? AND ?");
+        expect("ExpenseDao.getExpenseSumByCategory", userDate,
+                "SELECT categoryId, SUM(amount) as total FROM expenses WHERE userId = ? " +
+                "AND date BETWEEN ? AND ? GROUP BY categoryId");
+        expect("ExpenseDao.getLatestExpenses", userDate,
+                "SELECT * FROM expenses WHERE userId = ? " +
+                "ORDER BY date DESC, expenseId DESC LIMIT ?");
+        expect("ExpenseDao.getExpensesStartingAt", userDate,
+                "SELECT * FROM expenses WHERE userId = ? AND date <= ? " +
+                "AND (date < ? OR expenseId <= ?) " +
+                "ORDER BY date DESC, expenseId DESC LIMIT ?");
+        expect("ExpenseDao.getExpensesOlderThan", userDate,
+                "SELECT * FROM expenses WHERE userId = ? AND date <= ? " +
+                "AND (date < ? OR expenseId < ?) " +
+                "ORDER BY date DESC, expenseId DESC LIMIT ?");
+        expect("ExpenseDao.getExpensesNewerThan", userDate,
+                "SELECT * FROM expenses WHERE userId = ? AND date >= ? " +
+                "AND (date > ? OR expenseId > ?) " +
+                "ORDER BY date ASC, expenseId ASC LIMIT ?");
+        expect("ExpenseDao.searchExpenses", "INTEGER PRIMARY KEY",
+                "SELECT e.* FROM expenses_fts CROSS JOIN expenses e ON e.expenseId = expenses_fts.docid " +
+                "WHERE expenses_fts MATCH ? AND e.userId = ? " +
+                "ORDER BY e.description LIKE ? || '%' DESC, e.date DESC, e.expenseId DESC " +
+                "LIMIT ? OFFSET ?");
+        expect("ExpenseDao.getExpenseCount", userCategoryDate,
+                "SELECT COUNT(*) FROM expenses WHERE userId = ?");
+        expect("CategoryDao.getExpenseCountsByCategory", userCategoryDate,
+                "SELECT categoryId, COUNT(*) AS expenseCount FROM expenses " +
+                "WHERE userId = ? GROUP BY categoryId");
+        expect("CategoryDao.searchCategories", "INTEGER PRIMARY KEY",
+                "SELECT c.* FROM categories_fts CROSS JOIN categories c ON c.categoryId = categories_fts.docid " +
+                "WHERE categories_fts MATCH ? " +
+                "ORDER BY c.categoryName LIKE ? || '%' DESC, c.categoryName " +
+                "LIMIT ? OFFSET ?");
+        expect("MonthlyTotalDao.getMonthTotal", rollupKey,
+                "SELECT IFNULL(SUM(total), 0) FROM monthly_category_totals " +
+                "WHERE userId = ? AND epochMonth = ?");
+        expect("MonthlyTotalDao.getAllTimeTotal", rollupKey,
+                "SELECT IFNULL(SUM(total), 0) FROM monthly_category_totals WHERE userId = ?");
+        expect("MonthlyTotalDao.getCategoryTotal", rollupKey,
+                "SELECT * FROM monthly_category_totals " +
+                "WHERE userId = ? AND epochMonth = ? AND categoryId = ? LIMIT 1");
+        expect("BudgetDao.getAllBudgetsByUser", budgetMonth,
+                "SELECT * FROM budgets WHERE userId = ? ORDER BY epochMonth DESC");
+        expect("BudgetDao.getBudgetForMonth", budgetMonth,
+                "SELECT * FROM budgets WHERE userId = ? AND epochMonth = ? LIMIT 1");
+        expect("BudgetDao.getBudgetsByYear", budgetMonth,
+                "SELECT * FROM budgets WHERE userId = ? " +
+                "AND epochMonth BETWEEN (? - 1970) * 12 AND (? - 1970) * 12 + 11 " +
+                "ORDER BY epochMonth");
+        expect("UserDao.getUserByEmail", "index_users_email",
+                "SELECT * FROM users WHERE email = ? LIMIT 1");
+        expect("ReceiptDao.getUnreferencedPaths", "index_receipt_refs_refCount",
+                "SELECT path FROM receipt_refs WHERE refCount <= 0");
+        expect("ReceiptDao.getRefCount", "sqlite_autoindex_receipt_refs_1",
+                "SELECT IFNULL((SELECT refCount FROM receipt_refs WHERE path = ?), 0)");
+    }
+
+    public static void main(String[] args) throws SQLException {
+        List<String> failures = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            Schema.createTables(connection);
+            Schema.createTriggers(connection);
+
+            for (Map.Entry<String, Expected> entry : QUERIES.entrySet()) {
+                Expected expected = entry.getValue();
+                List<String> plan = plan(connection, expected.sql);
+                String problem = check(plan, expected.index);
+                System.out.println((problem == null ? "ok    " : "FAIL  ") + entry.getKey());
+                for (String step : plan) {
+                    System.out.println("        " + step);
+                }
+                if (problem != null) {
+                    failures.add(entry.getKey() + ": " + problem);
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            System.err.println();
+            for (String failure : failures) {
+                System.err.println(failure);
+            }
+            System.exit(1);
+        }
+    }
+
+    // Null when no step scans a table and the expected index is searched
+    private static String check(List<String> plan, String index) {
+        boolean usesIndex = false;
+        for (String step : plan) {
+            // "SCAN t" walks every row; "SCAN t USING INDEX i" walks a whole index,
+            // which is no better. FTS lookups show up as VIRTUAL TABLE INDEX steps,
+            // and a bare scalar subquery as SCAN CONSTANT ROW.
+            if (step.startsWith("SCAN ") && !step.contains("VIRTUAL TABLE")
+                    && !step.equals("SCAN CONSTANT ROW")) {
+                return "full scan: " + step;
+            }
+            if (step.startsWith("SEARCH ") && step.contains(index)) {
+                usesIndex = true;
+            }
+        }
+        return usesIndex ? null : "does not search " + index;
+    }
+
+    private static List<String> plan(Connection connection, String sql) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                steps.add(rs.getString("detail"));
+            }
+        }
+        return steps;
+    }
+
+    private QueryPlanCheck() {
+        // Private constructor to prevent instantiation
+    }
+}
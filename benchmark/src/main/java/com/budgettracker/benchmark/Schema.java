@@ -0,0 +1,173 @@
+package com.budgettracker.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// The app's current schema (AppDatabase version 10) as Room creates it, including
+// the rollup triggers from RollupTriggers, the receipt reference counting from
+// ReceiptTriggers and the FTS sync triggers. Keep in step
+// with the entities.
+final class Schema {
+
+    static final int VERSION = 10;
+
+    // Same bucketing as MonthlyCategoryTotal.EPOCH_MONTH_OF_DATE
+    private static String epochMonthOf(String date) {
+        return "((CAST(strftime('%Y', " + date + " / 1000, 'unixepoch', 'localtime') AS INTEGER) - 1970) * 12 " +
+               "+ CAST(strftime('%m', " + date + " / 1000, 'unixepoch', 'localtime') AS INTEGER) - 1)";
+    }
+
+    private static final String[] TABLES = {
+        "CREATE TABLE IF NOT EXISTS `users` (" +
+            "`userId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL, " +
+            "`email` TEXT NOT NULL, `password` TEXT NOT NULL)",
+        "CREATE UNIQUE INDEX IF NOT EXISTS `index_users_email` ON `users` (`email`)",
+        "CREATE TABLE IF NOT EXISTS `categories` (" +
+            "`categoryId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `categoryName` TEXT NOT NULL)",
+        "CREATE UNIQUE INDEX IF NOT EXISTS `index_categories_categoryName` " +
+            "ON `categories` (`categoryName`)",
+        "CREATE TABLE IF NOT EXISTS `expenses` (" +
+            "`expenseId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+            "`userId` INTEGER NOT NULL, `categoryId` INTEGER NOT NULL, " +
+            "`date` INTEGER NOT NULL, `time` TEXT NOT NULL, " +
+            "`description` TEXT NOT NULL, `amount` INTEGER NOT NULL, `photoUri` TEXT, " +
+            "FOREIGN KEY(`userId`) REFERENCES `users`(`userId`) " +
+            "ON UPDATE NO ACTION ON DELETE NO ACTION , " +
+            "FOREIGN KEY(`categoryId`) REFERENCES `categories`(`categoryId`) " +
+            "ON UPDATE NO ACTION ON DELETE NO ACTION )",
+        "CREATE INDEX IF NOT EXISTS `index_expenses_userId_categoryId_date` " +
+            "ON `expenses` (`userId`, `categoryId`, `date`)",
+        "CREATE INDEX IF NOT EXISTS `index_expenses_userId_date_categoryId_amount` " +
+            "ON `expenses` (`userId`, `date`, `categoryId`, `amount`)",
+        "CREATE INDEX IF NOT EXISTS `index_expenses_categoryId` " +
+            "ON `expenses` (`categoryId`)",
+        "CREATE TABLE IF NOT EXISTS `budgets` (" +
+            "`budgetId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+            "`userId` INTEGER NOT NULL, `epochMonth` INTEGER NOT NULL, " +
+            "`minSpending` INTEGER NOT NULL, `maxSpending` INTEGER NOT NULL, " +
+            "FOREIGN KEY(`userId`) REFERENCES `users`(`userId`) " +
+            "ON UPDATE NO ACTION ON DELETE NO ACTION )",
+        "CREATE UNIQUE INDEX IF NOT EXISTS `index_budgets_userId_epochMonth` " +
+            "ON `budgets` (`userId`, `epochMonth`)",
+        "CREATE TABLE IF NOT EXISTS `monthly_category_totals` (" +
+            "`userId` INTEGER NOT NULL, `epochMonth` INTEGER NOT NULL, " +
+            "`categoryId` INTEGER NOT NULL, `total` INTEGER NOT NULL, " +
+            "`expenseCount` INTEGER NOT NULL, " +
+            "PRIMARY KEY(`userId`, `epochMonth`, `categoryId`))",
+        "CREATE TABLE IF NOT EXISTS `receipt_refs` (" +
+            "`path` TEXT NOT NULL, `refCount` INTEGER NOT NULL, PRIMARY KEY(`path`))",
+        "CREATE INDEX IF NOT EXISTS `index_receipt_refs_refCount` " +
+            "ON `receipt_refs` (`refCount`)"
+    };
+
+    // Same statements as Migrations.createFtsTable
+    private static String[] ftsTable(String ftsTable, String contentTable, String column) {
+        String trigger = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + ftsTable + "_";
+        String delete = "BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insert = "BEGIN INSERT INTO `" + ftsTable + "`(`docid`, `" + column + "`) " +
+                "VALUES (NEW.`rowid`, NEW.`" + column + "`); END";
+        return new String[] {
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `" + ftsTable + "` USING FTS4(" +
+                "`" + column + "` TEXT NOT NULL, tokenize=unicode61, content=`" + contentTable + "`)",
+            trigger + "BEFORE_UPDATE BEFORE UPDATE ON `" + contentTable + "` " + delete,
+            trigger + "BEFORE_DELETE BEFORE DELETE ON `" + contentTable + "` " + delete,
+            trigger + "AFTER_UPDATE AFTER UPDATE ON `" + contentTable + "` " + insert,
+            trigger + "AFTER_INSERT AFTER INSERT ON `" + contentTable + "` " + insert,
+            "INSERT INTO `" + ftsTable + "`(`" + ftsTable + "`) VALUES('rebuild')"
+        };
+    }
+
+    private static String add(String row) {
+        String key = "userId = " + row + ".userId AND epochMonth = " + epochMonthOf(row + ".date") +
+                " AND categoryId = " + row + ".categoryId";
+        return "INSERT OR IGNORE INTO monthly_category_totals " +
+                "(userId, epochMonth, categoryId, total, expenseCount) VALUES (" +
+                row + ".userId, " + epochMonthOf(row + ".date") + ", " + row + ".categoryId, 0, 0); " +
+                "UPDATE monthly_category_totals SET total = total + " + row + ".amount, " +
+                "expenseCount = expenseCount + 1 WHERE " + key + "; ";
+    }
+
+    private static String subtract(String row) {
+        String key = "userId = " + row + ".userId AND epochMonth = " + epochMonthOf(row + ".date") +
+                " AND categoryId = " + row + ".categoryId";
+        return "UPDATE monthly_category_totals SET total = total - " + row + ".amount, " +
+                "expenseCount = expenseCount - 1 WHERE " + key + "; " +
+                "DELETE FROM monthly_category_totals WHERE " + key +
+                " AND expenseCount <= 0; ";
+    }
+
+    private static String acquire(String row) {
+        return "INSERT OR IGNORE INTO receipt_refs (path, refCount) VALUES (" + row + ".photoUri, 0); " +
+                "UPDATE receipt_refs SET refCount = refCount + 1 WHERE path = " + row + ".photoUri; ";
+    }
+
+    private static String release(String row) {
+        return "UPDATE receipt_refs SET refCount = refCount - 1 WHERE path = " + row + ".photoUri; ";
+    }
+
+    private static final String[] TRIGGERS = {
+        "CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_insert " +
+            "AFTER INSERT ON expenses BEGIN " + add("NEW") + "END",
+        "CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_delete " +
+            "AFTER DELETE ON expenses BEGIN " + subtract("OLD") + "END",
+        "CREATE TRIGGER IF NOT EXISTS rollup_expenses_after_update " +
+            "AFTER UPDATE OF userId, categoryId, date, amount ON expenses BEGIN " +
+            subtract("OLD") + add("NEW") + "END",
+        // Counts for rows seeded before the triggers existed
+        "INSERT INTO receipt_refs (path, refCount) " +
+            "SELECT photoUri, COUNT(*) FROM expenses WHERE photoUri IS NOT NULL GROUP BY photoUri",
+        "CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_insert " +
+            "AFTER INSERT ON expenses WHEN NEW.photoUri IS NOT NULL BEGIN " + acquire("NEW") + "END",
+        "CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_delete " +
+            "AFTER DELETE ON expenses WHEN OLD.photoUri IS NOT NULL BEGIN " + release("OLD") + "END",
+        "CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_update_release " +
+            "AFTER UPDATE OF photoUri ON expenses " +
+            "WHEN OLD.photoUri IS NOT NULL AND OLD.photoUri IS NOT NEW.photoUri BEGIN " +
+            release("OLD") + "END",
+        "CREATE TRIGGER IF NOT EXISTS receipts_expenses_after_update_acquire " +
+            "AFTER UPDATE OF photoUri ON expenses " +
+            "WHEN NEW.photoUri IS NOT NULL AND OLD.photoUri IS NOT NEW.photoUri BEGIN " +
+            acquire("NEW") + "END"
+    };
+
+    static void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : TABLES) {
+                statement.execute(sql);
+            }
+            statement.execute("PRAGMA user_version = " + VERSION);
+        }
+    }
+
+    // Separate from the tables so bulk seeding can build the rollup, the receipt
+    // counts and the full-text indexes in one pass each
+    static void createTriggers(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : TRIGGERS) {
+                statement.execute(sql);
+            }
+            for (String sql : ftsTable("expenses_fts", "expenses", "description")) {
+                statement.execute(sql);
+            }
+            for (String sql : ftsTable("categories_fts", "categories", "categoryName")) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    // Same statement as MonthlyTotalDao.insertTotalsFromExpenses
+    static void rebuildRollup(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM monthly_category_totals");
+            statement.execute("INSERT INTO monthly_category_totals " +
+                    "(userId, epochMonth, categoryId, total, expenseCount) " +
+                    "SELECT userId, " + epochMonthOf("date") + ", categoryId, " +
+                    "SUM(amount), COUNT(*) FROM expenses GROUP BY 1, 2, 3");
+        }
+    }
+
+    private Schema() {
+        // Private constructor to prevent instantiation
+    }
+}